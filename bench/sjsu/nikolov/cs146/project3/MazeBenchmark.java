@@ -0,0 +1,365 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH benchmarks for the hot paths of Maze: generation, both solvers,
+ * destination picking and rendering, from 10*10 up to 4096*4096,
+ * on mazes generated from fixed seeds.
+ * Each benchmark also counts the cells it went through; JMH reports that
+ * as a rate next to the op rate, and ns/cell is 1e9 over it.
+ * The benchmarks live in the Maze package, since Maze is package-private.
+ * mvn package -P benchmarks builds them into target/benchmarks.jar, with JMH 1.37:
+ * java -jar target/benchmarks.jar runs them all, and main here runs them
+ * with the GC profiler attached for the allocation rate.
+ * For the cell layouts, run layout_solve on Linux with -prof perfnorm as
+ * well, which gives cache and TLB misses per op next to the time.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { "-Xmx8g" })
+public class MazeBenchmark {
+    /**
+     * A maze of the benchmarked size, generated from a fixed seed. Benchmarks
+     * take one of the fixtures below, each of which builds only what its
+     * benchmarks measure, so the setup and the heap of one structure do not
+     * weigh on the others.
+     */
+    @State(Scope.Thread)
+    public static class Fixture {
+        @Param({ "10", "64", "256", "1024", "4096" })
+        public int size;
+
+        @Param({ "1", "42" })
+        public long seed;
+
+        GeneratorConfig config;
+        Maze maze;
+        int exit;
+
+        // Cell probed next by the per-cell benchmarks.
+        int probe;
+
+        void generate() {
+            config = new GeneratorConfig(seed);
+            maze = new Maze(size);
+            maze.mazify(config);
+            exit = size*size - 1;
+        }
+
+        int next_probe() {
+            probe += 7919;
+            if (probe >= size*size)
+                probe %= size*size;
+            return probe;
+        }
+    }
+
+    /**
+     * Only the seed, for the benchmarks that make their own maze.
+     */
+    @State(Scope.Thread)
+    public static class Seeded extends Fixture {
+        @Setup(Level.Trial)
+        public void setup() {
+            config = new GeneratorConfig(seed);
+        }
+    }
+
+    /**
+     * The maze alone.
+     */
+    @State(Scope.Thread)
+    public static class Plain extends Fixture {
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+        }
+    }
+
+    /**
+     * The maze with no cell visited, so pick_destination has choices.
+     */
+    @State(Scope.Thread)
+    public static class Picking extends Fixture {
+        RandomGenerator rand;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+            rand = config.random();
+            maze.storage.clear_visited();
+        }
+    }
+
+    /**
+     * The maze with its traversal order, for rendering.
+     */
+    @State(Scope.Thread)
+    public static class Rendering extends Fixture {
+        char[] order;
+        MazeRenderer renderer;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+            order = maze.bfs(0, exit, true).order().clone();
+            renderer = new MazeRenderer(maze);
+        }
+    }
+
+    /**
+     * The maze as a bitboard.
+     */
+    @State(Scope.Thread)
+    public static class Boards extends Fixture {
+        BitboardMaze board;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+            board = new BitboardMaze(maze);
+        }
+    }
+
+    /**
+     * The maze's distance index.
+     */
+    @State(Scope.Thread)
+    public static class Indexed extends Fixture {
+        MazeIndex index;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+            index = new MazeIndex(maze);
+        }
+    }
+
+    /**
+     * The maze's junction graph.
+     */
+    @State(Scope.Thread)
+    public static class Junctions extends Fixture {
+        JunctionGraph graph;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+            graph = new JunctionGraph(maze);
+        }
+    }
+
+    /**
+     * The maze cut into 64*64 tiles.
+     */
+    @State(Scope.Thread)
+    public static class Tiles extends Fixture {
+        HierarchicalGraph tiles;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            generate();
+            tiles = new HierarchicalGraph(maze, 64, ForkJoinPool.commonPool());
+        }
+    }
+
+    /**
+     * A generator to compare, at each size.
+     */
+    @State(Scope.Thread)
+    public static class Generation {
+        @Param({ "10", "64", "256", "1024", "4096" })
+        public int size;
+
+        @Param({ "backtracker", "kruskal", "prim", "wilson", "eller", "tiled" })
+        public String generator;
+
+        @Param({ "1", "42" })
+        public long seed;
+    }
+
+    /**
+     * A solver to compare, on a randomised grid with loops and open areas.
+     * pbfs is not one of MazeSolver.ALL until it is shown to beat bfs; here it
+     * takes the parallel path on the common pool at every size, so the size
+     * where it starts to can be read off the results.
+     */
+    @State(Scope.Thread)
+    public static class Solving {
+        @Param({ "64", "256", "1024", "4096" })
+        public int size;
+
+        @Param({ "bfs", "dfs", "astar", "bibfs", "pbfs" })
+        public String solver;
+
+        MazeSolver picked;
+        Maze maze;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            picked = solver.equals("pbfs") ? new ParallelBfsSolver(ForkJoinPool.commonPool(), 0, 4096) : MazeSolver.named(solver);
+            maze = new Maze(size);
+            maze.randomise(new GeneratorConfig(1));
+        }
+    }
+
+    /**
+     * A cell layout to compare, on the same Eller maze, up to 8192*8192,
+     * where the arrays of a solve are far bigger than the caches.
+     */
+    @State(Scope.Thread)
+    public static class Layouts {
+        @Param({ "1024", "8192" })
+        public int size;
+
+        @Param({ "row", "tiled" })
+        public String layout;
+
+        @Param({ "bfs", "dfs", "astar" })
+        public String solver;
+
+        MazeSolver picked;
+        Maze maze;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            picked = MazeSolver.named(solver);
+            maze = new Maze(MazeLayout.named(layout, size));
+            maze.generate(MazeGenerator.ELLER, new GeneratorConfig(1));
+        }
+    }
+
+    /**
+     * Cells processed, reported by JMH as a rate.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Cells {
+        public long cells;
+    }
+
+    @Benchmark
+    public Maze mazify(Seeded fixture, Cells counter) {
+        Maze maze = new Maze(fixture.size);
+        maze.mazify(fixture.config);
+        counter.cells += maze.cells();
+        return maze;
+    }
+
+    @Benchmark
+    public Maze generate(Generation generation, Cells counter) {
+        Maze maze = new Maze(generation.size);
+        maze.generate(MazeGenerator.named(generation.generator), new GeneratorConfig(generation.seed));
+        counter.cells += maze.cells();
+        return maze;
+    }
+
+    @Benchmark
+    public int bfs_solve(Plain fixture, Cells counter) {
+        SolveResult result = fixture.maze.bfs(0, fixture.exit, false);
+        counter.cells += result.visited;
+        return result.length;
+    }
+
+    @Benchmark
+    public int dfs_solve(Plain fixture, Cells counter) {
+        SolveResult result = fixture.maze.dfs(0, fixture.exit, false);
+        counter.cells += result.visited;
+        return result.length;
+    }
+
+    @Benchmark
+    public int bitboard_solve(Boards fixture, Cells counter) {
+        SolveResult result = fixture.board.solve(0, fixture.exit);
+        counter.cells += result.visited;
+        return result.length;
+    }
+
+    @Benchmark
+    public int solve(Solving solving, Cells counter) {
+        SolveResult result = solving.picked.solve(solving.maze, 0, solving.size*solving.size - 1);
+        counter.cells += result.visited;
+        return result.length;
+    }
+
+    @Benchmark
+    public int layout_solve(Layouts layouts, Cells counter) {
+        SolveResult result = layouts.picked.solve(layouts.maze, 0, layouts.maze.int_cells() - 1);
+        counter.cells += result.visited;
+        return result.length;
+    }
+
+    @Benchmark
+    public int junction_solve(Junctions fixture, Cells counter) {
+        SolveResult result = fixture.graph.solve(fixture.next_probe(), fixture.next_probe());
+        counter.cells += result.visited;
+        return result.length;
+    }
+
+    @Benchmark
+    public int hierarchical_solve(Tiles fixture, Cells counter) {
+        SolveResult result = fixture.tiles.solve(fixture.next_probe(), fixture.next_probe());
+        counter.cells += result.visited;
+        return result.path().length;
+    }
+
+    @Benchmark
+    public int index_length(Indexed fixture, Cells counter) {
+        counter.cells++;
+        return fixture.index.length(fixture.next_probe(), fixture.next_probe());
+    }
+
+    @Benchmark
+    public int pick_destination(Picking fixture, Cells counter) {
+        counter.cells++;
+        return fixture.maze.pick_destination(fixture.next_probe(), fixture.rand);
+    }
+
+    @Benchmark
+    public void get_walls(Plain fixture, Cells counter, Blackhole hole) {
+        counter.cells++;
+        hole.consume(fixture.maze.get_walls(fixture.next_probe()));
+    }
+
+    @Benchmark
+    public void print(Rendering fixture, Cells counter) throws IOException {
+        fixture.renderer.render(fixture.order, " %c ", OutputStream.nullOutputStream());
+        counter.cells += fixture.maze.cells();
+    }
+
+    /**
+     * Runs every benchmark above with the GC profiler attached.
+     */
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(MazeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,75 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * A* search with the Manhattan distance to the end as its guess.
+ * On a grid every step moves one row or one column, so the guess never
+ * overshoots and the first time the end comes off the heap its path is shortest.
+ * Where the maze has loops and open areas (randomise), it heads for the end
+ * instead of flooding outwards, and reaches far fewer cells than bfs.
+ */
+final class AStarSolver implements MazeSolver {
+    public String name() {
+        return "astar";
+    }
+
+    public SolveResult solve(Maze maze, int start, int end) {
+        SolverWorkspace work = SolverWorkspace.current().prepare(maze.int_cells());
+        int[] parent = work.parent;
+        int[] distance = work.distance();
+        IntMinHeap heap = work.heap;
+        heap.clear();
+        work.clear_opened();
+
+        int end_row = maze.row(end);
+        int end_col = maze.col(end);
+
+        // Open the start. work.seen marks cells whose distance is final.
+        distance[start] = 0;
+        work.open(start);
+        heap.push(priority(0, manhattan(maze, start, end_row, end_col)), start);
+        int reached = 1;
+
+        while (!heap.is_empty()) {
+            int current = heap.pop();
+            if (work.seen(current))
+                continue;
+            work.mark(current);
+            if (current == end)
+                return new SolveResult(start, end, distance[end] + 1, reached, work, null);
+
+            // Relax every open passage.
+            int step = distance[current] + 1;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = maze.passage(current, direction);
+                if (next == -1 || work.seen(next))
+                    continue;
+                if (!work.opened(next)) {
+                    work.open(next);
+                    reached++;
+                }
+                else if (distance[next] <= step)
+                    continue;
+                distance[next] = step;
+                parent[next] = current;
+                heap.push(priority(step, manhattan(maze, next, end_row, end_col)), next);
+            }
+        }
+        return new SolveResult(start, end, -1, reached, work, null);
+    }
+
+    /**
+     * Orders by distance plus guess, and among equals by the smaller guess.
+     * In open areas many cells tie, and going deepest first walks straight
+     * to the end instead of widening the front.
+     * @param distance - Steps from the start.
+     * @param guess - Manhattan distance to the end.
+     * @return The heap key.
+     */
+    private static long priority(int distance, int guess) {
+        return ((long)distance + guess) << 32 | guess;
+    }
+
+    private static int manhattan(Maze maze, int cell, int end_row, int end_col) {
+        return Math.abs(maze.row(cell) - end_row) + Math.abs(maze.col(cell) - end_col);
+    }
+}
@@ -0,0 +1,51 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * ArrayMazeStorage adapts the original int[][] layout to MazeStorage.
+ * Row EAST and row SOUTH hold the walls, row 2 holds the visit state.
+ * Nothing is copied, so changes show up in the caller's array.
+ */
+class ArrayMazeStorage implements MazeStorage {
+    private static final int VISITED = 2;
+
+    private final int[][] maze;
+
+    /**
+     * Wraps a hand-made maze. If it has no visit row, one is added.
+     * @param maze - At least the EAST and SOUTH rows, all of the same length.
+     */
+    ArrayMazeStorage(int[][] maze) {
+        if (maze.length < VISITED)
+            throw new IllegalArgumentException("A maze needs at least an EAST and a SOUTH row.");
+        if (maze.length == VISITED) {
+            maze = Arrays.copyOf(maze, VISITED + 1);
+            maze[VISITED] = new int[maze[EAST].length];
+        }
+        this.maze = maze;
+    }
+
+    public long cells() {
+        return maze[EAST].length;
+    }
+
+    public int wall(int side, long cell) {
+        return maze[side][(int)cell];
+    }
+
+    public void set_wall(int side, long cell, int value) {
+        maze[side][(int)cell] = value;
+    }
+
+    public int visited(long cell) {
+        return maze[VISITED][(int)cell];
+    }
+
+    public void set_visited(long cell, int state) {
+        maze[VISITED][(int)cell] = state;
+    }
+
+    public void clear_visited() {
+        Arrays.fill(maze[VISITED], 0);
+    }
+}
@@ -0,0 +1,21 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.random.RandomGenerator;
+
+/**
+ * The recursive backtracker mazify has always used: a random depth-first walk
+ * that backs up when it gets stuck. Long winding corridors, few junctions.
+ */
+final class BacktrackerGenerator implements MazeGenerator {
+    public String name() {
+        return "backtracker";
+    }
+
+    public void generate(Maze maze, RandomGenerator rand) {
+        maze.backtrack(rand);
+    }
+
+    public long footprint(int size) {
+        // The cell stack. Visit bits live in the maze storage.
+        return 4L*size*size;
+    }
+}
@@ -0,0 +1,111 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * Breadth-first search from both ends at once. One search grows from the start,
+ * the other from the end, a whole level at a time, always the side with the
+ * smaller frontier. They stop the moment one reaches a cell of the other.
+ * Each search has covered every cell up to its depth, so that first meeting
+ * is on a shortest path, the same length bfs finds.
+ * Each side only goes about half as deep, so between two cells well inside
+ * a maze with loops, the two together reach about half the cells one
+ * search from the start would. Between opposite corners there is little to gain.
+ */
+final class BidirectionalSolver implements MazeSolver {
+    public String name() {
+        return "bibfs";
+    }
+
+    public SolveResult solve(Maze maze, int start, int end) {
+        SolverWorkspace work = SolverWorkspace.current().prepare(maze.int_cells());
+        if (start == end) {
+            work.mark(start);
+            return new SolveResult(start, end, 1, 1, work, null);
+        }
+
+        // work.seen marks cells of the start side, work.opened cells of the end side.
+        // Each cell belongs to one side, so they share the parent links.
+        work.clear_opened();
+        int[] forward = work.cells;
+        int[] backward = work.back();
+        int[] parent = work.parent;
+
+        // Each queue holds one level, from tail to head, and the next level after it.
+        work.mark(start);
+        forward[0] = start;
+        int forward_tail = 0;
+        int forward_head = 1;
+        work.open(end);
+        backward[0] = end;
+        int backward_tail = 0;
+        int backward_head = 1;
+
+        while (forward_tail < forward_head && backward_tail < backward_head) {
+            if (forward_head - forward_tail <= backward_head - backward_tail) {
+                // Expand one level from the start side.
+                int level = forward_head;
+                while (forward_tail < level) {
+                    int current = forward[forward_tail++];
+                    for (int direction = 0; direction < 4; direction++) {
+                        int next = maze.passage(current, direction);
+                        if (next == -1 || work.seen(next))
+                            continue;
+                        if (work.opened(next))
+                            return splice(work, start, end, current, next, forward_head + backward_head);
+                        work.mark(next);
+                        parent[next] = current;
+                        forward[forward_head++] = next;
+                    }
+                }
+            }
+            else {
+                // Expand one level from the end side.
+                int level = backward_head;
+                while (backward_tail < level) {
+                    int current = backward[backward_tail++];
+                    for (int direction = 0; direction < 4; direction++) {
+                        int next = maze.passage(current, direction);
+                        if (next == -1 || work.opened(next))
+                            continue;
+                        if (work.seen(next))
+                            return splice(work, start, end, next, current, forward_head + backward_head);
+                        work.open(next);
+                        parent[next] = current;
+                        backward[backward_head++] = next;
+                    }
+                }
+            }
+        }
+        return new SolveResult(start, end, -1, forward_head + backward_head, work, null);
+    }
+
+    /**
+     * Joins the two searches where they met. The links of the end side point
+     * towards the end; turning them around makes one chain of parent links
+     * from the end back to the start, as bfs would have left it.
+     * @param work - The workspace of the solve.
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @param near - The meeting cell on the start side.
+     * @param far - Its neighbour on the end side.
+     * @param visited - Cells reached by both searches.
+     * @return The result.
+     */
+    private static SolveResult splice(SolverWorkspace work, int start, int end, int near, int far, int visited) {
+        int[] parent = work.parent;
+        int length = 1;
+        for (int current = near; current != start; current = parent[current])
+            length++;
+
+        int previous = near;
+        int current = far;
+        while (current != end) {
+            int next = parent[current];
+            parent[current] = previous;
+            previous = current;
+            current = next;
+            length++;
+        }
+        parent[end] = previous;
+        return new SolveResult(start, end, length + 1, visited, work, null);
+    }
+}
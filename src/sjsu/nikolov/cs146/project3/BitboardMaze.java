@@ -0,0 +1,237 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * BitboardMaze is a copy of a maze's walls as rows of 64-bit masks, one bit
+ * per cell: which cells have their EAST wall open, and which their SOUTH.
+ * A search over it moves a whole word of cells per step with shifts and ANDs
+ * instead of testing one cell and one wall at a time.
+ * Build it once per maze and solve on it as often as needed. It does not
+ * follow later changes to the maze.
+ */
+final class BitboardMaze {
+    // Row length in cells, rows, and words per row.
+    final int size;
+    final int rows;
+    final int width;
+
+    // Cell numbers of the maze, which go in and come out of a solve.
+    private final MazeLayout layout;
+
+    // Bit c of word w of a row: EAST (or SOUTH) wall of cell 64*w + c is open.
+    // The last column has no open EAST walls and the last row no open SOUTH walls.
+    private final long[] east;
+    private final long[] south;
+
+    /**
+     * Converts the walls of a maze.
+     * @param maze - The maze.
+     */
+    BitboardMaze(Maze maze) {
+        size = maze.size();
+        rows = size;
+        layout = maze.layout;
+        width = (size + 63) >>> 6;
+        long words = (long)rows * width;
+        if (words > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Maze too large for bitboards: " + size + "*" + size);
+        east = new long[(int)words];
+        south = new long[(int)words];
+
+        MazeStorage storage = maze.storage;
+        for (int row = 0; row < rows; row++) {
+            int base = row * width;
+            for (int col = 0; col < size; col++) {
+                long bit = 1L << col;
+                long cell = maze.cell(row, col);
+                if (col < size - 1 && storage.wall(MazeStorage.EAST, cell) == MazeStorage.CONNECTED)
+                    east[base + (col >>> 6)] |= bit;
+                if (row < rows - 1 && storage.wall(MazeStorage.SOUTH, cell) == MazeStorage.CONNECTED)
+                    south[base + (col >>> 6)] |= bit;
+            }
+        }
+    }
+
+    /**
+     * Floods outwards from the start one step per round, each round over the
+     * words the frontier is in. The round in which the end is first reached is
+     * its distance. Every cell keeps the round it was reached in, mod 3, in two
+     * bit planes, which is enough to walk back from the end afterwards: a
+     * neighbour one round earlier is always one step closer to the start.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @return The result. Its path stays valid for as long as the result.
+     */
+    SolveResult solve(int start, int end) {
+        return new Search(start, end).run();
+    }
+
+    /**
+     * Search is the state of one solve, kept for the walk back.
+     */
+    private final class Search implements SolveResult.PathSource {
+        private final int start;
+        private final int end;
+
+        // Reached cells, and the round they were reached in, mod 3, as two planes.
+        private final long[] reached = new long[east.length];
+        private final long[] low = new long[east.length];
+        private final long[] high = new long[east.length];
+
+        // Cells first reached last round, and the cells they lead to this round.
+        private final long[] frontier = new long[east.length];
+        private final long[] next = new long[east.length];
+
+        // Words holding a frontier, and words the next round wrote to.
+        // A cell is on the frontier for one round only, so all rounds
+        // together go through no more words than there are cells.
+        private int[] active = new int[64];
+        private int active_count;
+        private int[] touched = new int[64];
+        private int touched_count;
+        private final int[] touched_round = new int[east.length];
+
+        private int distance;
+
+        Search(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        SolveResult run() {
+            int index = layout.row(start) * width + (layout.col(start) >>> 6);
+            long bit = 1L << layout.col(start);
+            reached[index] = bit;
+            frontier[index] = bit;
+            active[active_count++] = index;
+            long visited = 1;
+
+            int end_index = layout.row(end) * width + (layout.col(end) >>> 6);
+            long end_bit = 1L << layout.col(end);
+            int round = 0;
+            while ((reached[end_index] & end_bit) == 0) {
+                if (active_count == 0)
+                    return new SolveResult(start, end, -1, (int)visited, this);
+                round++;
+                expand(round);
+                visited += settle(round);
+            }
+            distance = round;
+            return new SolveResult(start, end, round + 1, (int)visited, this);
+        }
+
+        /**
+         * Moves the frontier one step in every open direction, into next.
+         * @param round - The round number, to list touched words once.
+         */
+        private void expand(int round) {
+            touched_count = 0;
+            for (int a = 0; a < active_count; a++) {
+                int i = active[a];
+                long f = frontier[i];
+                frontier[i] = 0;
+                int w = i % width;
+
+                // EAST: through our own EAST wall, to the next bit up. Bit 63 carries into the next word.
+                // WEST: through the EAST wall of the cell one bit down. Bit 0 borrows from the word before.
+                long e = f & east[i];
+                next[i] |= (e << 1) | ((f >>> 1) & east[i]);
+                touch(i, round);
+                if (w + 1 < width && e < 0) {
+                    next[i + 1] |= 1;
+                    touch(i + 1, round);
+                }
+                if (w > 0 && (f & 1) != 0 && east[i - 1] < 0) {
+                    next[i - 1] |= 1L << 63;
+                    touch(i - 1, round);
+                }
+
+                // SOUTH and NORTH.
+                long down = f & south[i];
+                if (down != 0) {
+                    next[i + width] |= down;
+                    touch(i + width, round);
+                }
+                if (i >= width) {
+                    long up = f & south[i - width];
+                    if (up != 0) {
+                        next[i - width] |= up;
+                        touch(i - width, round);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Keeps the newly reached cells of next as the new frontier and stamps their round.
+         * @param round - The round number.
+         * @return Cells reached this round.
+         */
+        private long settle(int round) {
+            long low_bits = (round % 3 & 1) != 0 ? -1L : 0;
+            long high_bits = (round % 3 & 2) != 0 ? -1L : 0;
+            long count = 0;
+            active_count = 0;
+            for (int t = 0; t < touched_count; t++) {
+                int i = touched[t];
+                long fresh = next[i] & ~reached[i];
+                next[i] = 0;
+                if (fresh == 0)
+                    continue;
+                frontier[i] = fresh;
+                reached[i] |= fresh;
+                low[i] |= fresh & low_bits;
+                high[i] |= fresh & high_bits;
+                count += Long.bitCount(fresh);
+                if (active_count == active.length)
+                    active = Arrays.copyOf(active, 2 * active_count);
+                active[active_count++] = i;
+            }
+            return count;
+        }
+
+        private void touch(int i, int round) {
+            if (touched_round[i] == round)
+                return;
+            touched_round[i] = round;
+            if (touched_count == touched.length)
+                touched = Arrays.copyOf(touched, 2 * touched_count);
+            touched[touched_count++] = i;
+        }
+
+        /**
+         * @return The round a reached cell was reached in, mod 3.
+         */
+        private int stamp(int row, int col) {
+            int i = row * width + (col >>> 6);
+            return (int)(low[i] >>> col) & 1 | ((int)(high[i] >>> col) & 1) << 1;
+        }
+
+        private boolean reached(int row, int col) {
+            return (reached[row * width + (col >>> 6)] & (1L << col)) != 0;
+        }
+
+        private boolean open(long[] walls, int row, int col) {
+            return (walls[row * width + (col >>> 6)] & (1L << col)) != 0;
+        }
+
+        public void write(int[] into) {
+            // Walk back from the end, always to an open neighbour one round earlier.
+            int row = layout.row(end);
+            int col = layout.col(end);
+            for (int d = distance; d > 0; d--) {
+                into[d] = (int)layout.cell(row, col);
+                int want = (d - 1) % 3;
+                if (col + 1 < size && open(east, row, col) && reached(row, col + 1) && stamp(row, col + 1) == want)
+                    col++;
+                else if (row + 1 < rows && open(south, row, col) && reached(row + 1, col) && stamp(row + 1, col) == want)
+                    row++;
+                else if (col > 0 && open(east, row, col - 1) && reached(row, col - 1) && stamp(row, col - 1) == want)
+                    col--;
+                else
+                    row--;
+            }
+            into[0] = (int)layout.cell(row, col);
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Eller's algorithm: build the maze one row at a time, keeping only which
+ * cells of the current row are already connected to each other.
+ * Memory depends on the width alone, and the walls are written in order,
+ * so it can also stream a maze far bigger than the heap straight to a file.
+ */
+final class EllerGenerator implements MazeGenerator {
+    // Wall bits of a row, as Rows hands them out.
+    static final int EAST_BIT = 1;
+    static final int SOUTH_BIT = 2;
+
+    /**
+     * Rows walks down the maze. Each call to next gives the walls of the next row.
+     */
+    static final class Rows {
+        private final int width;
+        private final RandomGenerator rand;
+
+        // Union-find over the columns of the current row, roots point at themselves.
+        private final int[] set;
+
+        // For each column, the set it joined from above, by root column, or -1.
+        private final int[] above;
+
+        // Scratch, indexed by set: first column seen, then whether the set has gone down.
+        private final int[] scratch;
+
+        // Coin flips, 64 to a nextLong.
+        private long coins;
+        private int coins_left;
+
+        /**
+         * @param width - The row length.
+         * @param rand - Where the randomness comes from.
+         */
+        Rows(int width, RandomGenerator rand) {
+            this.width = width;
+            this.rand = rand;
+            set = new int[width];
+            above = new int[width];
+            scratch = new int[width];
+            Arrays.fill(above, -1);
+        }
+
+        /**
+         * Works out the next row.
+         * @param last - Whether it is the bottom row.
+         * @param walls - Filled with EAST_BIT and SOUTH_BIT for each knocked down wall.
+         */
+        void next(boolean last, byte[] walls) {
+            Arrays.fill(walls, 0, width, (byte)0);
+
+            // Cells that came down from the same set stay together, the others start alone.
+            Arrays.fill(scratch, -1);
+            for (int col = 0; col < width; col++) {
+                set[col] = col;
+                int label = above[col];
+                if (label != -1) {
+                    if (scratch[label] == -1)
+                        scratch[label] = col;
+                    else
+                        set[col] = scratch[label];
+                }
+            }
+
+            // Join neighbors in different sets, sometimes. On the last row, always.
+            for (int col = 0; col < width - 1; col++) {
+                int left = find(col);
+                int right = find(col + 1);
+                if (left != right && (last || coin())) {
+                    walls[col] |= EAST_BIT;
+                    set[right] = left;
+                }
+            }
+            if (last)
+                return;
+
+            // Go down at random, but make sure every set goes down at least once.
+            // scratch[root] is -2 once the set went down, else the last column that did not.
+            final int went_down = -2;
+            Arrays.fill(scratch, -1);
+            for (int col = 0; col < width; col++) {
+                int root = find(col);
+                if (coin()) {
+                    walls[col] |= SOUTH_BIT;
+                    scratch[root] = went_down;
+                }
+                else if (scratch[root] != went_down)
+                    scratch[root] = col;
+            }
+            for (int root = 0; root < width; root++)
+                if (scratch[root] >= 0)
+                    walls[scratch[root]] |= SOUTH_BIT;
+
+            // Tell the next row which sets it inherits.
+            for (int col = 0; col < width; col++)
+                above[col] = (walls[col] & SOUTH_BIT) != 0 ? find(col) : -1;
+        }
+
+        private boolean coin() {
+            if (coins_left == 0) {
+                coins = rand.nextLong();
+                coins_left = 64;
+            }
+            coins_left--;
+            boolean heads = (coins & 1) != 0;
+            coins >>>= 1;
+            return heads;
+        }
+
+        private int find(int col) {
+            while (set[col] != col) {
+                set[col] = set[set[col]];
+                col = set[col];
+            }
+            return col;
+        }
+    }
+
+    public String name() {
+        return "eller";
+    }
+
+    public void generate(Maze maze, RandomGenerator rand) {
+        int size = maze.size();
+        Rows rows = new Rows(size, rand);
+        byte[] walls = new byte[size];
+        for (int row = 0; row < size; row++) {
+            rows.next(row == size - 1, walls);
+            for (int col = 0; col < size; col++) {
+                if ((walls[col] & EAST_BIT) != 0)
+                    maze.set_wall(MazeStorage.EAST, maze.cell(row, col), MazeStorage.CONNECTED);
+                if ((walls[col] & SOUTH_BIT) != 0)
+                    maze.set_wall(MazeStorage.SOUTH, maze.cell(row, col), MazeStorage.CONNECTED);
+            }
+        }
+    }
+
+    /**
+     * Generates a maze straight to a channel without ever holding more than a row.
+     * The walls come out exactly as PackedMazeStorage keeps them: 2 bits per cell,
+     * EAST then SOUTH, 32 cells to a little-endian long, rows back to back.
+     * The same config gives the same walls as generate would.
+     * @param size - The row length of the maze.
+     * @param config - Where the randomness comes from.
+     * @param out - Where the walls go.
+     * @return The number of bytes written.
+     */
+    static long stream(int size, GeneratorConfig config, WritableByteChannel out) throws IOException {
+        Rows rows = new Rows(size, config.random());
+        byte[] walls = new byte[size];
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        long written = 0;
+
+        // The word being filled and how many cells are in it.
+        long word = 0;
+        int filled = 0;
+        for (int row = 0; row < size; row++) {
+            rows.next(row == size - 1, walls);
+            for (int col = 0; col < size; col++) {
+                word |= (long)walls[col] << (filled << 1);
+                if (++filled == PackedMazeStorage.CELLS_PER_WORD) {
+                    buffer.putLong(word);
+                    word = 0;
+                    filled = 0;
+                    if (!buffer.hasRemaining())
+                        written += drain(buffer, out);
+                }
+            }
+        }
+
+        // The last, partly filled word.
+        if (filled > 0)
+            buffer.putLong(word);
+        return written + drain(buffer, out);
+    }
+
+    /**
+     * Generates a maze straight to a file, replacing whatever was there.
+     * @param size - The row length of the maze.
+     * @param config - Where the randomness comes from.
+     * @param file - Where the walls go.
+     * @return The number of bytes written.
+     */
+    static long stream(int size, GeneratorConfig config, Path file) throws IOException {
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            return stream(size, config, out);
+        }
+    }
+
+    private static int drain(ByteBuffer buffer, WritableByteChannel out) throws IOException {
+        buffer.flip();
+        int bytes = buffer.remaining();
+        while (buffer.hasRemaining())
+            out.write(buffer);
+        buffer.clear();
+        return bytes;
+    }
+
+    public long footprint(int size) {
+        // Three int arrays and a byte array, one slot per column.
+        return 13L*size;
+    }
+}
@@ -0,0 +1,59 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.SplittableRandom;
+import java.util.function.LongFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * GeneratorConfig says where the randomness of maze generation comes from.
+ * It holds a seed and a way to turn that seed into a RandomGenerator.
+ * Every generation run makes one generator from it and keeps it to itself,
+ * so the same seed always gives the same maze.
+ */
+final class GeneratorConfig {
+    // The seed every run starts from.
+    final long seed;
+
+    // Turns the seed into a source of random numbers.
+    private final LongFunction<RandomGenerator> source;
+
+    /**
+     * Config with a SplittableRandom source.
+     * @param seed - The seed.
+     */
+    GeneratorConfig(long seed) {
+        this(seed, SplittableRandom::new);
+    }
+
+    /**
+     * Config with a source of our choosing, e.g. seed -> new Random(seed).
+     * @param seed - The seed.
+     * @param source - Makes a RandomGenerator from a seed. Must be deterministic.
+     */
+    GeneratorConfig(long seed, LongFunction<RandomGenerator> source) {
+        this.seed = seed;
+        this.source = source;
+    }
+
+    /**
+     * A config nobody cares to reproduce, seeded from the clock.
+     * @return A new config.
+     */
+    static GeneratorConfig unseeded() {
+        return new GeneratorConfig(System.nanoTime());
+    }
+
+    /**
+     * @return A fresh generator, starting from the seed.
+     */
+    RandomGenerator random() {
+        return source.apply(seed);
+    }
+
+    /**
+     * @param seed - Another seed.
+     * @return A config with the same source and a different seed.
+     */
+    GeneratorConfig with_seed(long seed) {
+        return new GeneratorConfig(seed, source);
+    }
+}
@@ -0,0 +1,77 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.Random;
+import java.util.random.RandomGenerator;
+import org.junit.Test;
+
+
+public class GeneratorConfigTester
+{
+	private static boolean same_walls(Maze a, Maze b)
+	{
+		for (long cell = 0; cell < a.cells(); cell++)
+			for (int side = MazeStorage.EAST; side <= MazeStorage.SOUTH; side++)
+				if (a.storage.wall(side, cell) != b.storage.wall(side, cell))
+					return false;
+		return true;
+	}
+
+	@Test
+	public void same_seed_same_maze()
+	{
+		Maze first = new Maze(40);
+		first.mazify(new GeneratorConfig(1234));
+		Maze second = new Maze(40);
+		second.mazify(new GeneratorConfig(1234));
+		assertTrue(same_walls(first, second));
+
+		Maze other = new Maze(40);
+		other.mazify(new GeneratorConfig(4321));
+		assertFalse(same_walls(first, other));
+	}
+
+	@Test
+	public void pluggable_source()
+	{
+		GeneratorConfig config = new GeneratorConfig(99, Random::new);
+		Maze first = new Maze(25);
+		first.mazify(config);
+		Maze second = new Maze(25);
+		second.mazify(config);
+		assertTrue(same_walls(first, second));
+
+		Maze randomised = new Maze(25);
+		randomised.randomise(config);
+		Maze again = new Maze(25);
+		again.randomise(config);
+		assertTrue(same_walls(randomised, again));
+	}
+
+	@Test
+	public void still_perfect()
+	{
+		// A perfect maze on N cells has N - 1 passages and reaches every cell.
+		Maze maze = new Maze(30);
+		maze.mazify(new GeneratorConfig(7));
+		int passages = 0;
+		for (long cell = 0; cell < maze.cells(); cell++)
+			passages += maze.storage.wall(MazeStorage.EAST, cell) + maze.storage.wall(MazeStorage.SOUTH, cell);
+		assertEquals(maze.cells() - 1, passages);
+		for (int cell = 1; cell < maze.cells(); cell++)
+			assertTrue(maze.bfs(0, cell, false).solved());
+	}
+
+	@Test
+	public void pick_without_retry()
+	{
+		Maze maze = new Maze(3);
+		GeneratorConfig config = new GeneratorConfig(5);
+		// From the centre every direction is open, and every one of them gets picked.
+		boolean[] picked = new boolean[9];
+		RandomGenerator rand = config.random();
+		for (int i = 0; i < 200; i++)
+			picked[maze.pick_destination(4, rand)] = true;
+		assertTrue(picked[1] && picked[3] && picked[5] && picked[7]);
+		assertFalse(picked[0] || picked[2] || picked[4] || picked[6] || picked[8]);
+	}
+}
@@ -0,0 +1,450 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * HierarchicalGraph solves big mazes in two levels, in the manner of HPA*.
+ * The maze is cut into square tiles. The cells on a tile's edge with an open
+ * wall into the next tile are its openings, and for every tile we keep the
+ * distance, inside the tile, between every two of its openings.
+ * A query first searches the openings only, as a graph: edges of one step
+ * between tiles, and the kept distances within them. Then, when the path is
+ * asked for, it searches inside the tiles the path goes through, and no others.
+ * The distances are exact, so the path is a shortest one.
+ *
+ * The tiles are computed in parallel, can be saved and read back, and can be
+ * recomputed one at a time when their walls change.
+ */
+final class HierarchicalGraph {
+    // Tiles per task below which a task stops splitting.
+    private static final int TILES_PER_TASK = 4;
+
+    // Written at the front of a saved graph.
+    private static final int MAGIC = 0x48504131;
+
+    private final Maze maze;
+    private final int size;
+    private final int tile;
+    private final int across;
+
+    // Per tile: its openings, as ascending cell numbers, and the distances
+    // between them, row i of the matrix for opening i, -1 where there is no path.
+    private final int[][] openings;
+    private final int[][] distances;
+
+    // Every opening numbered across all tiles: where each tile's numbers start,
+    // and the cell and tile of each number. Rebuilt after tiles change.
+    private int[] first_opening;
+    private int[] opening_cell;
+    private int[] opening_tile;
+
+    /**
+     * Cuts a maze into tiles and computes them.
+     * @param maze - The maze.
+     * @param tile - The side of a tile, in cells. Edge tiles may be smaller.
+     * @param pool - Where the tiles are computed.
+     */
+    HierarchicalGraph(Maze maze, int tile, ForkJoinPool pool) {
+        this(maze, tile);
+        pool.invoke(new Compute(0, openings.length));
+        number();
+    }
+
+    private HierarchicalGraph(Maze maze, int tile) {
+        if (tile < 1)
+            throw new IllegalArgumentException("Bad tile size: " + tile);
+        // Cell numbers are ints here.
+        maze.int_cells();
+        this.maze = maze;
+        this.size = maze.size();
+        this.tile = tile;
+        this.across = (size + tile - 1) / tile;
+        openings = new int[across * across][];
+        distances = new int[across * across][];
+    }
+
+    /**
+     * Compute is a range of tiles. It splits in half until it is small.
+     */
+    private final class Compute extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from;
+        private final int to;
+
+        Compute(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TILES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Compute(from, middle), new Compute(middle, to));
+                return;
+            }
+            Scratch scratch = new Scratch();
+            for (int t = from; t < to; t++)
+                compute_tile(t, scratch);
+        }
+    }
+
+    /**
+     * Scratch holds the arrays of a search inside one tile.
+     */
+    private final class Scratch {
+        final int[] distance = new int[tile * tile];
+        final int[] parent = new int[tile * tile];
+        final int[] queue = new int[tile * tile];
+    }
+
+    /**
+     * @param cell - A cell.
+     * @return The tile it is in.
+     */
+    int tile_of(int cell) {
+        return (maze.row(cell) / tile) * across + maze.col(cell) / tile;
+    }
+
+    /**
+     * @return The number of openings across all tiles.
+     */
+    int openings() {
+        return opening_cell.length;
+    }
+
+    /**
+     * Finds the openings of a tile and the distances between them.
+     * @param t - The tile.
+     * @param scratch - Arrays for the searches.
+     */
+    private void compute_tile(int t, Scratch scratch) {
+        int top = (t / across) * tile;
+        int left = (t % across) * tile;
+        int height = Math.min(tile, size - top);
+        int width = Math.min(tile, size - left);
+
+        // Edge cells with an open wall out of the tile.
+        int[] found = new int[4 * tile];
+        int count = 0;
+        for (int row = top; row < top + height; row++) {
+            boolean edge_row = row == top || row == top + height - 1;
+            for (int col = left; col < left + width; col += edge_row || width == 1 ? 1 : width - 1) {
+                int cell = (int)maze.cell(row, col);
+                for (int direction = 0; direction < 4; direction++) {
+                    int next = maze.passage(cell, direction);
+                    if (next != -1 && tile_of(next) != t) {
+                        found[count++] = cell;
+                        break;
+                    }
+                }
+            }
+        }
+        // Ascending, for the binary search in solve. The layout decides the order.
+        int[] cells = Arrays.copyOf(found, count);
+        Arrays.sort(cells);
+
+        int[] matrix = new int[count * count];
+        for (int i = 0; i < count; i++) {
+            search(t, cells[i], scratch);
+            for (int j = 0; j < count; j++)
+                matrix[i * count + j] = scratch.distance[local(t, cells[j])];
+        }
+        openings[t] = cells;
+        distances[t] = matrix;
+    }
+
+    /**
+     * @param t - A tile.
+     * @param cell - A cell in it.
+     * @return The cell's number within the tile, row-major.
+     */
+    private int local(int t, int cell) {
+        int left = (t % across) * tile;
+        int width = Math.min(tile, size - left);
+        return (maze.row(cell) - (t / across) * tile) * width + maze.col(cell) - left;
+    }
+
+    /**
+     * Breadth-first search from a cell, without leaving its tile.
+     * @param t - The tile.
+     * @param from - The cell to search from.
+     * @param scratch - Gets the distance of every cell of the tile, -1 if out of reach,
+     * and the parent of every reached one, by local number.
+     * @return Cells reached.
+     */
+    private int search(int t, int from, Scratch scratch) {
+        int top = (t / across) * tile;
+        int left = (t % across) * tile;
+        int height = Math.min(tile, size - top);
+        int width = Math.min(tile, size - left);
+        int[] distance = scratch.distance;
+        int[] parent = scratch.parent;
+        int[] queue = scratch.queue;
+        Arrays.fill(distance, 0, height * width, -1);
+
+        int start = local(t, from);
+        distance[start] = 0;
+        parent[start] = -1;
+        queue[0] = from;
+        int head = 1;
+        for (int tail = 0; tail < head; tail++) {
+            int current = queue[tail];
+            int step = distance[local(t, current)] + 1;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = maze.passage(current, direction);
+                if (next == -1)
+                    continue;
+                int row = maze.row(next) - top;
+                int col = maze.col(next) - left;
+                if (row < 0 || row >= height || col < 0 || col >= width || distance[row * width + col] != -1)
+                    continue;
+                distance[row * width + col] = step;
+                parent[row * width + col] = current;
+                queue[head++] = next;
+            }
+        }
+        return head;
+    }
+
+    /**
+     * Numbers the openings across all tiles.
+     */
+    private void number() {
+        first_opening = new int[openings.length + 1];
+        for (int t = 0; t < openings.length; t++)
+            first_opening[t + 1] = first_opening[t] + openings[t].length;
+        opening_cell = new int[first_opening[openings.length]];
+        opening_tile = new int[opening_cell.length];
+        for (int t = 0; t < openings.length; t++) {
+            System.arraycopy(openings[t], 0, opening_cell, first_opening[t], openings[t].length);
+            Arrays.fill(opening_tile, first_opening[t], first_opening[t + 1], t);
+        }
+    }
+
+    /**
+     * Recomputes the tiles a wall touches. Call it after changing the wall.
+     * @param side - The wall, EAST or SOUTH.
+     * @param cell - The cell it belongs to.
+     */
+    void wall_changed(int side, int cell) {
+        // EAST and SOUTH are also directions 0 and 1.
+        int other = maze.neighbor(cell, side);
+        Scratch scratch = new Scratch();
+        compute_tile(tile_of(cell), scratch);
+        if (other != -1 && tile_of(other) != tile_of(cell))
+            compute_tile(tile_of(other), scratch);
+        number();
+    }
+
+    /**
+     * Recomputes one tile, after any number of changes to its walls. The walls
+     * on its edges belong to the next tiles as well; recompute them too.
+     * @param t - The tile.
+     */
+    void tile_changed(int t) {
+        compute_tile(t, new Scratch());
+        number();
+    }
+
+    /**
+     * Finds a shortest path. The openings are searched A* style, with the
+     * Manhattan distance to the end as the guess, in the thread's workspace.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @return The result. Its path stays valid until a tile changes.
+     */
+    SolveResult solve(int start, int end) {
+        int start_tile = tile_of(start);
+        int end_tile = tile_of(end);
+
+        // Distances from the end to the openings of its tile, and from the start to its own.
+        Scratch from_end = new Scratch();
+        int visited = search(end_tile, end, from_end);
+        Scratch from_start = new Scratch();
+        visited += search(start_tile, start, from_start);
+
+        long best = Long.MAX_VALUE;
+        if (start_tile == end_tile && from_start.distance[local(start_tile, end)] != -1)
+            best = from_start.distance[local(start_tile, end)];
+
+        SolverWorkspace work = SolverWorkspace.current().prepare(openings());
+        work.clear_opened();
+        int[] distance = work.distance();
+        int[] parent = work.parent;
+        IntMinHeap heap = work.heap;
+        heap.clear();
+        int end_row = maze.row(end);
+        int end_col = maze.col(end);
+        for (int i = first_opening[start_tile]; i < first_opening[start_tile + 1]; i++) {
+            int d = from_start.distance[local(start_tile, opening_cell[i])];
+            if (d != -1)
+                reach(work, i, d, -1, end_row, end_col);
+        }
+
+        int last = -1;
+        while (!heap.is_empty() && (heap.peek_key() >>> 32) < best) {
+            int u = heap.pop();
+            if (work.seen(u))
+                continue;
+            work.mark(u);
+            visited++;
+            int cell = opening_cell[u];
+            int t = opening_tile[u];
+            if (t == end_tile) {
+                int rest = from_end.distance[local(t, cell)];
+                if (rest != -1 && (long)distance[u] + rest < best) {
+                    best = (long)distance[u] + rest;
+                    last = u;
+                }
+            }
+
+            // Within the tile, through the kept distances.
+            int first = first_opening[t];
+            int count = openings[t].length;
+            int[] matrix = distances[t];
+            int row = (u - first) * count;
+            for (int j = 0; j < count; j++)
+                if (matrix[row + j] > 0 && !work.seen(first + j))
+                    reach(work, first + j, distance[u] + matrix[row + j], u, end_row, end_col);
+
+            // Out of the tile, one step.
+            for (int direction = 0; direction < 4; direction++) {
+                int next = maze.passage(cell, direction);
+                if (next == -1 || tile_of(next) == t)
+                    continue;
+                int other = tile_of(next);
+                int v = first_opening[other] + Arrays.binarySearch(openings[other], next);
+                if (!work.seen(v))
+                    reach(work, v, distance[u] + 1, u, end_row, end_col);
+            }
+        }
+        if (best == Long.MAX_VALUE)
+            return new SolveResult(start, end, -1, visited, null);
+
+        // The cells to pass through: start, the openings on the way, end.
+        int count = 2;
+        for (int u = last; u != -1; u = parent[u])
+            count++;
+        int[] waypoints = new int[count];
+        waypoints[0] = start;
+        waypoints[count - 1] = end;
+        int i = count - 2;
+        for (int u = last; u != -1; u = parent[u])
+            waypoints[i--] = opening_cell[u];
+        return new SolveResult(start, end, (int)best + 1, visited, into -> refine(waypoints, into));
+    }
+
+    /**
+     * Lowers an opening's distance, if the new one is shorter.
+     */
+    private void reach(SolverWorkspace work, int v, int distance, int from, int end_row, int end_col) {
+        if (work.opened(v) && work.distance[v] <= distance)
+            return;
+        work.open(v);
+        work.distance[v] = distance;
+        work.parent[v] = from;
+        int cell = opening_cell[v];
+        int guess = Math.abs(maze.row(cell) - end_row) + Math.abs(maze.col(cell) - end_col);
+        work.heap.push(((long)distance + guess) << 32 | guess, v);
+    }
+
+    /**
+     * Writes the path through a list of waypoints. Two in a row in different
+     * tiles are next to each other; two in the same tile are joined by a search
+     * inside it.
+     * @param waypoints - Cells the path goes through, in order.
+     * @param into - An array of the path's length.
+     */
+    private void refine(int[] waypoints, int[] into) {
+        Scratch scratch = new Scratch();
+        int i = 0;
+        into[i++] = waypoints[0];
+        for (int w = 1; w < waypoints.length; w++) {
+            int from = waypoints[w - 1];
+            int to = waypoints[w];
+            if (from == to)
+                continue;
+            int t = tile_of(from);
+            if (tile_of(to) != t) {
+                into[i++] = to;
+                continue;
+            }
+            search(t, to, scratch);
+            for (int cell = scratch.parent[local(t, from)]; cell != -1; cell = scratch.parent[local(t, cell)])
+                into[i++] = cell;
+        }
+    }
+
+    /**
+     * Saves the tiles: the maze and tile size and the maze's layout, which the
+     * cell numbers depend on, then per tile its openings and distance matrix,
+     * all little-endian ints.
+     * @param out - Where to write.
+     */
+    void write(WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC).putInt(size).putInt(tile).putInt(maze.layout.kind).flip();
+        write_fully(out, buffer);
+        for (int t = 0; t < openings.length; t++) {
+            int count = openings[t].length;
+            buffer = ByteBuffer.allocate(4 * (1 + count + count * count)).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(count);
+            buffer.asIntBuffer().put(openings[t]).put(distances[t]);
+            buffer.clear();
+            write_fully(out, buffer);
+        }
+    }
+
+    /**
+     * Reads tiles saved by write, for the maze they were computed on.
+     * @param maze - The maze.
+     * @param in - Where to read from.
+     * @return The graph.
+     */
+    static HierarchicalGraph read(Maze maze, ReadableByteChannel in) throws IOException {
+        ByteBuffer buffer = read_fully(in, 16);
+        if (buffer.getInt() != MAGIC)
+            throw new IOException("Not a saved tile graph.");
+        int size = buffer.getInt();
+        int tile = buffer.getInt();
+        int layout = buffer.getInt();
+        if (size != maze.size())
+            throw new IOException("Saved for a maze of size " + size + ", not " + maze.size() + ".");
+        if (layout != maze.layout.kind)
+            throw new IOException("Saved for layout " + layout + ", not " + maze.layout.kind + ".");
+        HierarchicalGraph graph = new HierarchicalGraph(maze, tile);
+        for (int t = 0; t < graph.openings.length; t++) {
+            int count = read_fully(in, 4).getInt();
+            if (count < 0 || count > 4 * tile)
+                throw new IOException("Bad opening count " + count + " in tile " + t + ".");
+            buffer = read_fully(in, 4 * (count + count * count));
+            graph.openings[t] = new int[count];
+            graph.distances[t] = new int[count * count];
+            buffer.asIntBuffer().get(graph.openings[t]).get(graph.distances[t]);
+        }
+        graph.number();
+        return graph;
+    }
+
+    private static void write_fully(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining())
+            out.write(buffer);
+    }
+
+    private static ByteBuffer read_fully(ReadableByteChannel in, int bytes) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+            if (in.read(buffer) == -1)
+                throw new EOFException("Tile graph ends early.");
+        return buffer.flip();
+    }
+}
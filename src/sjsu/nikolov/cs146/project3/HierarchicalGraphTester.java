@@ -0,0 +1,95 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+
+public class HierarchicalGraphTester
+{
+	private static Maze looped(int size, long seed, int loops)
+	{
+		Maze maze = new Maze(size);
+		maze.mazify(new GeneratorConfig(seed));
+		SplittableRandom rand = new SplittableRandom(seed);
+		for (int i = 0; i < loops; i++)
+			maze.set_wall(rand.nextInt(2), rand.nextInt((size - 1) * size), MazeStorage.CONNECTED);
+		return maze;
+	}
+
+	private static void same_as_bfs(Maze maze, HierarchicalGraph graph, long seed)
+	{
+		SplittableRandom rand = new SplittableRandom(seed);
+		int cells = maze.int_cells();
+		for (int query = 0; query < 100; query++) {
+			int start = rand.nextInt(cells);
+			int end = query % 10 == 0 ? start + rand.nextInt(Math.min(3, cells - start)) : rand.nextInt(cells);
+			SolveResult bfs = maze.bfs(start, end, false);
+			SolveResult result = graph.solve(start, end);
+			assertEquals(bfs.length, result.length);
+			if (result.solved())
+				MazeSolverTester.assert_walkable(maze, result);
+		}
+	}
+
+	@Test
+	public void same_as_bfs()
+	{
+		ForkJoinPool pool = new ForkJoinPool(3);
+		// Tiles that do and do not divide the maze, down to one cell.
+		for (int tile : new int[] { 1, 4, 7, 16, 50 }) {
+			Maze maze = looped(45, tile, 150);
+			same_as_bfs(maze, new HierarchicalGraph(maze, tile, pool), tile);
+		}
+		Maze maze = new Maze(30);
+		maze.randomise(new GeneratorConfig(3));
+		same_as_bfs(maze, new HierarchicalGraph(maze, 8, pool), 3);
+		pool.shutdown();
+	}
+
+	@Test
+	public void saved_and_read() throws Exception
+	{
+		Maze maze = looped(40, 8, 100);
+		HierarchicalGraph graph = new HierarchicalGraph(maze, 9, ForkJoinPool.commonPool());
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		graph.write(Channels.newChannel(out));
+		HierarchicalGraph read = HierarchicalGraph.read(maze, Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+		assertEquals(graph.openings(), read.openings());
+		same_as_bfs(maze, read, 8);
+
+		// Written again, byte for byte the same.
+		ByteArrayOutputStream again = new ByteArrayOutputStream();
+		read.write(Channels.newChannel(again));
+		assertArrayEquals(out.toByteArray(), again.toByteArray());
+	}
+
+	@Test(expected = java.io.IOException.class)
+	public void read_wrong_maze() throws Exception
+	{
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new HierarchicalGraph(looped(20, 1, 10), 5, ForkJoinPool.commonPool()).write(Channels.newChannel(out));
+		HierarchicalGraph.read(new Maze(21), Channels.newChannel(new ByteArrayInputStream(out.toByteArray())));
+	}
+
+	@Test
+	public void walls_changed()
+	{
+		Maze maze = looped(36, 4, 50);
+		HierarchicalGraph graph = new HierarchicalGraph(maze, 6, ForkJoinPool.commonPool());
+		SplittableRandom rand = new SplittableRandom(4);
+		for (int change = 0; change < 40; change++) {
+			int side = rand.nextInt(2);
+			int cell = rand.nextInt(35 * 36);
+			if (side == MazeStorage.EAST && cell % 36 == 35)
+				continue;
+			maze.set_wall(side, cell, rand.nextInt(2));
+			graph.wall_changed(side, cell);
+		}
+		assertEquals(new HierarchicalGraph(maze, 6, ForkJoinPool.commonPool()).openings(), graph.openings());
+		same_as_bfs(maze, graph, 4);
+	}
+}
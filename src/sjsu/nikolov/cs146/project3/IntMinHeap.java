@@ -0,0 +1,97 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * IntMinHeap is a binary heap of int values ordered by long keys, with no boxing.
+ * Keys and values sit in two parallel arrays that move together.
+ * A long key leaves room for a tie breaker in its low bits.
+ * It only grows, and clear keeps the arrays, so a reused heap does not allocate.
+ */
+final class IntMinHeap {
+    private long[] keys = new long[64];
+    private int[] values = new int[64];
+    private int size;
+
+    /**
+     * Empties the heap, keeping its memory.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return Whether the heap is empty.
+     */
+    boolean is_empty() {
+        return size == 0;
+    }
+
+    /**
+     * @return The number of entries.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry.
+     * @param key - What the heap is ordered by.
+     * @param value - What comes back out.
+     */
+    void push(long key, int value) {
+        if (size == keys.length) {
+            long[] more_keys = new long[size * 2];
+            int[] more_values = new int[size * 2];
+            System.arraycopy(keys, 0, more_keys, 0, size);
+            System.arraycopy(values, 0, more_values, 0, size);
+            keys = more_keys;
+            values = more_values;
+        }
+
+        // Sift up.
+        int child = size++;
+        while (child > 0) {
+            int parent = (child - 1) >>> 1;
+            if (keys[parent] <= key)
+                break;
+            keys[child] = keys[parent];
+            values[child] = values[parent];
+            child = parent;
+        }
+        keys[child] = key;
+        values[child] = value;
+    }
+
+    /**
+     * @return The smallest key. The heap must not be empty.
+     */
+    long peek_key() {
+        return keys[0];
+    }
+
+    /**
+     * Takes the entry with the smallest key out.
+     * @return Its value. The heap must not be empty.
+     */
+    int pop() {
+        int top = values[0];
+        long last = keys[--size];
+        int last_value = values[size];
+
+        // Sift the last entry down from the top.
+        int parent = 0;
+        int half = size >>> 1;
+        while (parent < half) {
+            int child = 2*parent + 1;
+            if (child + 1 < size && keys[child + 1] < keys[child])
+                child++;
+            if (last <= keys[child])
+                break;
+            keys[parent] = keys[child];
+            values[parent] = values[child];
+            parent = child;
+        }
+        keys[parent] = last;
+        values[parent] = last_value;
+        return top;
+    }
+}
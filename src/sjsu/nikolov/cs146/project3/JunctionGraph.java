@@ -0,0 +1,478 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * JunctionGraph is a maze boiled down for answering many path queries.
+ *
+ * First the dead ends are filled: cells with a single open side are peeled
+ * off, again and again, until only loops and the corridors between them are
+ * left (the core). Each filled cell keeps a pointer to the cell it hangs off,
+ * one step nearer the core, and how many steps away the core is.
+ * A perfect maze has no loops, so it fills up entirely and every query is
+ * just two walks along those pointers.
+ *
+ * Then every corridor of the core, a run of cells with two open sides,
+ * becomes one weighted edge between the junctions at its ends. The edges
+ * are stored in compressed sparse rows: the edges of junction j are slots
+ * offsets[j] to offsets[j + 1] - 1 of the edge arrays.
+ *
+ * A query walks from both cells to the core, runs Dijkstra over the
+ * junctions only, and writes out the cells of the corridors when the path
+ * is asked for. The graph is a snapshot; it does not follow later changes
+ * to the maze.
+ */
+final class JunctionGraph {
+    private static final int INFINITE = Integer.MAX_VALUE;
+
+    private final Maze maze;
+
+    // Filled cells: the next cell towards the core, and steps to it. -1 and 0 for core cells.
+    private final int[] exit;
+    private final int[] depth;
+
+    // Junction number of every cell, or -1, and the cell of every junction.
+    private final int[] junction_of;
+    private final int[] junction_cell;
+
+    // The edges, in compressed sparse rows: source and target junction,
+    // length in steps, and the first cell of the corridor after the source.
+    private final int[] offsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final int[] weights;
+    private final int[] first_steps;
+
+    /**
+     * Fills the dead ends and contracts the corridors of a maze.
+     * @param maze - The maze.
+     */
+    JunctionGraph(Maze maze) {
+        this.maze = maze;
+        int cells = maze.int_cells();
+        exit = new int[cells];
+        depth = new int[cells];
+        Arrays.fill(exit, -1);
+
+        // Open sides of every cell, and a queue of cells with one.
+        byte[] degree = new byte[cells];
+        int[] queue = new int[cells];
+        int tail = 0;
+        for (int cell = 0; cell < cells; cell++) {
+            for (int direction = 0; direction < 4; direction++)
+                if (maze.passage(cell, direction) != -1)
+                    degree[cell]++;
+            if (degree[cell] == 1)
+                queue[tail++] = cell;
+        }
+
+        // Fill the dead ends. The last cell of a tree is left with no open sides; it stays in the core.
+        for (int head = 0; head < tail; head++) {
+            int cell = queue[head];
+            if (degree[cell] == 0)
+                continue;
+            int next = core_neighbor(cell, -1);
+            exit[cell] = next;
+            degree[cell] = 0;
+            if (--degree[next] == 1)
+                queue[tail++] = next;
+        }
+
+        // Depths, nearest the core first: the reverse of the filling order.
+        for (int i = tail - 1; i >= 0; i--) {
+            int cell = queue[i];
+            if (exit[cell] != -1)
+                depth[cell] = depth[exit[cell]] + 1;
+        }
+
+        // Junctions: core cells with other than two open sides to the core.
+        junction_of = new int[cells];
+        Arrays.fill(junction_of, -1);
+        int junctions = 0;
+        for (int cell = 0; cell < cells; cell++)
+            if (exit[cell] == -1 && degree[cell] != 2)
+                junction_of[cell] = junctions++;
+
+        // Walk every corridor out of every junction. Loops with no junction on
+        // them are left unwalked; one cell of each becomes a junction and the
+        // loop an edge from it to itself.
+        long[] walked = new long[(cells + 63) >>> 6];
+        Edges found = new Edges();
+        for (int cell = 0; cell < cells; cell++)
+            if (junction_of[cell] != -1)
+                trace(cell, walked, found);
+        for (int cell = 0; cell < cells; cell++)
+            if (exit[cell] == -1 && junction_of[cell] == -1 && (walked[cell >>> 6] & (1L << cell)) == 0) {
+                junction_of[cell] = junctions++;
+                trace(cell, walked, found);
+            }
+        junction_cell = new int[junctions];
+        for (int cell = 0; cell < cells; cell++)
+            if (junction_of[cell] != -1)
+                junction_cell[junction_of[cell]] = cell;
+
+        // Sort the edges into rows by source.
+        offsets = new int[junctions + 1];
+        int edges = found.count;
+        int[] from = found.from;
+        for (int e = 0; e < edges; e++)
+            offsets[from[e] + 1]++;
+        for (int j = 0; j < junctions; j++)
+            offsets[j + 1] += offsets[j];
+        sources = new int[edges];
+        targets = new int[edges];
+        weights = new int[edges];
+        first_steps = new int[edges];
+        int[] fill = Arrays.copyOf(offsets, junctions);
+        for (int e = 0; e < edges; e++) {
+            int slot = fill[from[e]]++;
+            sources[slot] = from[e];
+            targets[slot] = found.to[e];
+            weights[slot] = found.weight[e];
+            first_steps[slot] = found.first[e];
+        }
+    }
+
+    /**
+     * Edges is a growing list of edges, before they are sorted into rows.
+     */
+    private static final class Edges {
+        int[] from = new int[16];
+        int[] to = new int[16];
+        int[] weight = new int[16];
+        int[] first = new int[16];
+        int count;
+
+        void add(int source, int target, int length, int step) {
+            if (count == from.length) {
+                from = Arrays.copyOf(from, 2 * count);
+                to = Arrays.copyOf(to, 2 * count);
+                weight = Arrays.copyOf(weight, 2 * count);
+                first = Arrays.copyOf(first, 2 * count);
+            }
+            from[count] = source;
+            to[count] = target;
+            weight[count] = length;
+            first[count] = step;
+            count++;
+        }
+    }
+
+    /**
+     * Walks every corridor out of a junction to the junction at its other end.
+     * @param junction - The junction's cell.
+     * @param walked - Marks the corridor cells walked.
+     * @param found - Where the edges go.
+     */
+    private void trace(int junction, long[] walked, Edges found) {
+        for (int direction = 0; direction < 4; direction++) {
+            int step = maze.passage(junction, direction);
+            if (step == -1 || exit[step] != -1)
+                continue;
+            int previous = junction;
+            int current = step;
+            int length = 1;
+            while (junction_of[current] == -1) {
+                walked[current >>> 6] |= 1L << current;
+                int next = core_neighbor(current, previous);
+                previous = current;
+                current = next;
+                length++;
+            }
+            found.add(junction_of[junction], junction_of[current], length, step);
+        }
+    }
+
+    /**
+     * @return The number of junctions.
+     */
+    int junctions() {
+        return junction_cell.length;
+    }
+
+    /**
+     * @return The number of edges, each corridor counted once from each end.
+     */
+    int edges() {
+        return targets.length;
+    }
+
+    /**
+     * @param cell - A cell of the maze.
+     * @return Whether dead-end filling removed it.
+     */
+    boolean filled(int cell) {
+        return exit[cell] != -1;
+    }
+
+    /**
+     * @param cell - A cell.
+     * @param previous - A cell to skip, or -1.
+     * @return The first open neighbour that is neither filled nor previous, or -1.
+     */
+    private int core_neighbor(int cell, int previous) {
+        for (int direction = 0; direction < 4; direction++) {
+            int next = maze.passage(cell, direction);
+            if (next != -1 && next != previous && exit[next] == -1)
+                return next;
+        }
+        return -1;
+    }
+
+    /**
+     * Finds a shortest path, in the thread's workspace. Nothing else is allocated
+     * but the result and the junctions on the path.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @return The result. Its path stays valid for as long as the graph.
+     */
+    SolveResult solve(int start, int end) {
+        // Down from the dead ends to the core.
+        int start_anchor = anchor(start);
+        int end_anchor = anchor(end);
+        int visited = depth[start] + depth[end] + 2;
+
+        // Both in the same filled tree, or one hanging off the other's anchor: no loops to search.
+        if (start_anchor == end_anchor) {
+            int length = tree_length(start, end);
+            return new SolveResult(start, end, length, visited, into -> write_tree(start, end, into));
+        }
+
+        // Where each anchor sits in the core: on a junction, or between two.
+        Side from = new Side(start_anchor, end_anchor);
+        Side to = new Side(end_anchor, -1);
+        visited += from.walked + to.walked;
+
+        // Seed Dijkstra with the junctions around the start.
+        SolverWorkspace work = SolverWorkspace.current().prepare(junctions());
+        work.clear_opened();
+        int[] distance = work.distance();
+        int[] parent = work.parent;
+        IntMinHeap heap = work.heap;
+        heap.clear();
+        for (int s = 0; s < from.count; s++)
+            reach(work, from.junction[s], from.steps[s], -1 - s);
+
+        long best = from.direct;
+        int last = -1;
+        while (!heap.is_empty() && heap.peek_key() < best) {
+            int u = heap.pop();
+            if (work.seen(u))
+                continue;
+            work.mark(u);
+            visited++;
+            for (int s = 0; s < to.count; s++)
+                if (to.junction[s] == u && (long)distance[u] + to.steps[s] < best) {
+                    best = (long)distance[u] + to.steps[s];
+                    last = s;
+                }
+            for (int slot = offsets[u]; slot < offsets[u + 1]; slot++)
+                if (!work.seen(targets[slot]))
+                    reach(work, targets[slot], distance[u] + weights[slot], slot);
+        }
+        if (best == INFINITE)
+            return new SolveResult(start, end, -1, visited, null);
+
+        int length = depth[start] + (int)best + depth[end] + 1;
+        if (last == -1) {
+            // Along the corridor from one anchor to the other, no junction in between.
+            int step = from.direct_step;
+            return new SolveResult(start, end, length, visited, into -> write(start, end, step, -1, null, -1, into));
+        }
+
+        // The corridors taken, start side first, and how the start side began.
+        int count = 0;
+        for (int u = to.junction[last]; parent[u] >= 0; u = sources[parent[u]])
+            count++;
+        int[] slots = new int[count];
+        int u = to.junction[last];
+        for (int i = count - 1; i >= 0; i--) {
+            slots[i] = parent[u];
+            u = sources[parent[u]];
+        }
+        int head = from.first[-1 - parent[u]];
+        int seed = junction_cell[u];
+        int tail = to.first[last];
+        return new SolveResult(start, end, length, visited, into -> write(start, end, head, seed, slots, tail, into));
+    }
+
+    /**
+     * Lowers a junction's distance, if the new one is shorter.
+     * @param work - The workspace of the search.
+     * @param junction - The junction reached.
+     * @param distance - Steps to it.
+     * @param slot - The edge we came by, or -1 - seed for a seed.
+     */
+    private static void reach(SolverWorkspace work, int junction, int distance, int slot) {
+        if (work.opened(junction) && work.distance[junction] <= distance)
+            return;
+        work.open(junction);
+        work.distance[junction] = distance;
+        work.parent[junction] = slot;
+        work.heap.push(distance, junction);
+    }
+
+    /**
+     * @param cell - A cell.
+     * @return The core cell its dead end hangs off; the cell itself if it is in the core.
+     */
+    private int anchor(int cell) {
+        while (exit[cell] != -1)
+            cell = exit[cell];
+        return cell;
+    }
+
+    /**
+     * Side is where an anchor sits in the core: the junctions it reaches first,
+     * how far they are, and which way it set off to each.
+     */
+    private final class Side {
+        final int[] junction = new int[2];
+        final int[] steps = new int[2];
+        final int[] first = new int[2];
+        int count;
+
+        // Steps to the other anchor along the same corridor, if it is on it, and which way.
+        long direct = INFINITE;
+        int direct_step = -1;
+
+        // Cells walked to find all this.
+        int walked;
+
+        /**
+         * @param anchor - A core cell.
+         * @param other - The other anchor, to look out for on the way, or -1.
+         */
+        Side(int anchor, int other) {
+            if (junction_of[anchor] != -1) {
+                junction[0] = junction_of[anchor];
+                first[0] = -1;
+                count = 1;
+                return;
+            }
+            for (int direction = 0; direction < 4; direction++) {
+                int step = maze.passage(anchor, direction);
+                if (step == -1 || exit[step] != -1)
+                    continue;
+                int previous = anchor;
+                int current = step;
+                int length = 1;
+                while (junction_of[current] == -1) {
+                    if (current == other && length < direct) {
+                        direct = length;
+                        direct_step = step;
+                    }
+                    int next = core_neighbor(current, previous);
+                    previous = current;
+                    current = next;
+                    length++;
+                }
+                walked += length;
+                junction[count] = junction_of[current];
+                steps[count] = length;
+                first[count] = step;
+                count++;
+            }
+        }
+    }
+
+    /**
+     * @return Cells on the path between two cells of the same filled tree.
+     */
+    private int tree_length(int start, int end) {
+        int length = 1;
+        int a = start;
+        int b = end;
+        while (a != b) {
+            if (depth[a] >= depth[b])
+                a = exit[a];
+            else
+                b = exit[b];
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Writes a path within one filled tree: up from both ends until they meet.
+     */
+    private void write_tree(int start, int end, int[] into) {
+        int i = 0;
+        int j = into.length - 1;
+        int a = start;
+        int b = end;
+        while (a != b) {
+            if (depth[a] >= depth[b]) {
+                into[i++] = a;
+                a = exit[a];
+            }
+            else {
+                into[j--] = b;
+                b = exit[b];
+            }
+        }
+        into[i] = a;
+    }
+
+    /**
+     * Writes a path through the core. The start side is written forwards and
+     * the end side backwards from the end of the array, so they meet exactly.
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @param head - The first step from the start's anchor, or -1 if it is a junction.
+     * @param seed - The first junction on the way.
+     * @param slots - The edges between junctions, or null to go straight to the end's anchor.
+     * @param tail - The first step from the end's anchor towards the last junction, or -1.
+     * @param into - An array of the path's length.
+     */
+    private void write(int start, int end, int head, int seed, int[] slots, int tail, int[] into) {
+        int i = 0;
+        int cell = start;
+        for (; exit[cell] != -1; cell = exit[cell])
+            into[i++] = cell;
+        int j = into.length - 1;
+        int last = end;
+        for (; exit[last] != -1; last = exit[last])
+            into[j--] = last;
+
+        if (slots == null) {
+            corridor(cell, head, last, into, i, 1);
+            into[j] = last;
+            return;
+        }
+        if (head != -1)
+            i = corridor(cell, head, seed, into, i, 1);
+        int junction = seed;
+        for (int slot : slots) {
+            i = corridor(junction, first_steps[slot], junction_cell[targets[slot]], into, i, 1);
+            junction = junction_cell[targets[slot]];
+        }
+        if (tail != -1)
+            corridor(last, tail, junction, into, j, -1);
+        into[i] = junction;
+    }
+
+    /**
+     * Writes a corridor walk: from, then every cell after it up to but not including stop.
+     * @param from - The first cell.
+     * @param step - The cell after it.
+     * @param stop - The cell to stop before.
+     * @param into - The path array.
+     * @param i - Where to write from.
+     * @param direction - 1 to write forwards, -1 backwards.
+     * @return Where the next cell goes.
+     */
+    private int corridor(int from, int step, int stop, int[] into, int i, int direction) {
+        into[i] = from;
+        i += direction;
+        int previous = from;
+        int current = step;
+        while (current != stop) {
+            into[i] = current;
+            i += direction;
+            int next = core_neighbor(current, previous);
+            previous = current;
+            current = next;
+        }
+        return i;
+    }
+}
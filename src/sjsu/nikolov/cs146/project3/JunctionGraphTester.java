@@ -0,0 +1,99 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+
+public class JunctionGraphTester
+{
+	/**
+	 * Random queries, checked against bfs for length and walked for being a path.
+	 */
+	private static void same_as_bfs(Maze maze, long seed)
+	{
+		JunctionGraph graph = new JunctionGraph(maze);
+		SplittableRandom rand = new SplittableRandom(seed);
+		int cells = maze.int_cells();
+		for (int query = 0; query < 200; query++) {
+			int start = rand.nextInt(cells);
+			int end = rand.nextInt(cells);
+			SolveResult bfs = maze.bfs(start, end, false);
+			SolveResult result = graph.solve(start, end);
+			assertEquals(bfs.length, result.length);
+			if (result.solved())
+				MazeSolverTester.assert_walkable(maze, result);
+		}
+	}
+
+	@Test
+	public void perfect_maze_fills_up()
+	{
+		Maze maze = new Maze(50);
+		maze.mazify(new GeneratorConfig(2));
+		JunctionGraph graph = new JunctionGraph(maze);
+		// A tree fills up, all but the one cell it ends on.
+		assertEquals(1, graph.junctions());
+		assertEquals(0, graph.edges());
+		same_as_bfs(maze, 2);
+	}
+
+	@Test
+	public void mazes_with_loops()
+	{
+		for (long seed = 0; seed < 8; seed++) {
+			Maze maze = new Maze(40);
+			maze.mazify(new GeneratorConfig(seed));
+			SplittableRandom rand = new SplittableRandom(seed);
+			for (int i = 0; i < 10 + 40 * seed; i++)
+				maze.set_wall(rand.nextInt(2), rand.nextInt(39 * 40), MazeStorage.CONNECTED);
+			same_as_bfs(maze, seed);
+		}
+	}
+
+	@Test
+	public void random_walls()
+	{
+		// Many pieces, some not connected to each other.
+		for (long seed = 0; seed < 5; seed++) {
+			Maze maze = new Maze(30);
+			maze.randomise(new GeneratorConfig(seed));
+			same_as_bfs(maze, seed);
+		}
+	}
+
+	@Test
+	public void loop_without_junctions()
+	{
+		// A 2*2 maze with every wall open is one loop of four corridor cells.
+		Maze maze = new Maze(2);
+		maze.set_wall(MazeStorage.EAST, 0, MazeStorage.CONNECTED);
+		maze.set_wall(MazeStorage.EAST, 2, MazeStorage.CONNECTED);
+		maze.set_wall(MazeStorage.SOUTH, 0, MazeStorage.CONNECTED);
+		maze.set_wall(MazeStorage.SOUTH, 1, MazeStorage.CONNECTED);
+		JunctionGraph graph = new JunctionGraph(maze);
+		assertEquals(1, graph.junctions());
+		for (int start = 0; start < 4; start++)
+			for (int end = 0; end < 4; end++)
+				assertEquals(maze.bfs(start, end, false).length, graph.solve(start, end).length);
+	}
+
+	@Test
+	public void visits_fewer_cells()
+	{
+		Maze maze = new Maze(200);
+		maze.mazify(new GeneratorConfig(5));
+		SplittableRandom rand = new SplittableRandom(5);
+		for (int i = 0; i < 400; i++)
+			maze.set_wall(rand.nextInt(2), rand.nextInt(199 * 200), MazeStorage.CONNECTED);
+		JunctionGraph graph = new JunctionGraph(maze);
+		long bfs = 0;
+		long contracted = 0;
+		for (int query = 0; query < 50; query++) {
+			int start = rand.nextInt(40000);
+			int end = rand.nextInt(40000);
+			bfs += maze.bfs(start, end, false).visited;
+			contracted += graph.solve(start, end).visited;
+		}
+		assertTrue(contracted * 10 < bfs);
+	}
+}
@@ -0,0 +1,55 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomized Kruskal: go through every inner wall in random order and knock it
+ * down if the cells on either side are not connected yet. A union-find tells us.
+ * Short dead ends everywhere, and the walk over the walls is a straight sweep.
+ */
+final class KruskalGenerator implements MazeGenerator {
+    public String name() {
+        return "kruskal";
+    }
+
+    public void generate(Maze maze, RandomGenerator rand) {
+        int size = maze.size();
+        int cells = maze.int_cells();
+        if (cells > Integer.MAX_VALUE / 2)
+            throw new IllegalStateException("Kruskal numbers walls as cell * 2 + side, too many cells: " + cells);
+
+        // Every inner wall, numbered cell * 2 + side, row by row whatever the layout.
+        int[] walls = new int[2 * (cells - size)];
+        int count = 0;
+        for (int row = 0; row < size; row++)
+            for (int col = 0; col < size; col++) {
+                int cell = (int)maze.cell(row, col);
+                if (col < size - 1)
+                    walls[count++] = cell << 1 | MazeStorage.EAST;
+                if (row < size - 1)
+                    walls[count++] = cell << 1 | MazeStorage.SOUTH;
+            }
+
+        // Shuffle as we go: each step swaps a random wall from the rest into place.
+        UnionFind sets = new UnionFind(cells);
+        int joined = 0;
+        for (int i = count - 1; i >= 0 && joined < cells - 1; i--) {
+            int j = rand.nextInt(i + 1);
+            int wall = walls[j];
+            walls[j] = walls[i];
+
+            int cell = wall >>> 1;
+            int side = wall & 1;
+            // EAST and SOUTH are also directions 0 and 1.
+            int other = maze.neighbor(cell, side);
+            if (sets.union(cell, other)) {
+                maze.set_wall(side, cell, MazeStorage.CONNECTED);
+                joined++;
+            }
+        }
+    }
+
+    public long footprint(int size) {
+        // The wall list and the union-find.
+        return 12L*size*size;
+    }
+}
@@ -0,0 +1,115 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * MappedMazeStorage keeps the walls in a file, mapped into memory, in the
+ * layout PackedMazeStorage uses: 2 bits per cell, 32 cells to a little-endian long.
+ * Nothing is read or copied up front; pages come in as the cells are touched,
+ * so opening a file takes next to no heap however big it is.
+ * Solving it does: the solvers number cells with ints and keep about 8 bytes
+ * of heap per cell (the queue or stack and the parent links of SolverWorkspace,
+ * some 32 times the file). So only mazes of up to 2^31 - 9 cells, size 46340
+ * and a 512MB file, can be solved, with a heap of about 16GB for the biggest.
+ * Bigger files open and their walls can be read and written, but
+ * Maze.int_cells turns away every solver before it allocates anything.
+ * A mapping holds at most 2GB, so the walls are mapped in chunks.
+ * The visit states are not in the file. They live on the heap and are only
+ * allocated when something first asks for them.
+ */
+final class MappedMazeStorage implements MazeStorage {
+    private static final int WORD_SHIFT = 5;
+    private static final int CELL_MASK = PackedMazeStorage.CELLS_PER_WORD - 1;
+
+    private final long cells;
+    private final MappedByteBuffer[] mappings;
+    private final WordChunks walls;
+
+    // Visit states, 2 bits per cell, once they are needed.
+    private long[] visits;
+
+    /**
+     * Maps the walls of a file.
+     * @param channel - The open file. The mapping outlives it.
+     * @param offset - Where the walls start in the file. A multiple of 8.
+     * @param cells - The number of cells.
+     * @param mode - READ_ONLY, or READ_WRITE for a maze that can change.
+     * @param chunk_shift - Bytes per mapping, as a shift, at least 3 and at most WordChunks.CHUNK_SHIFT.
+     */
+    MappedMazeStorage(FileChannel channel, long offset, long cells, FileChannel.MapMode mode, int chunk_shift) throws IOException {
+        if (offset % 8 != 0 || chunk_shift < 3 || chunk_shift > WordChunks.CHUNK_SHIFT)
+            throw new IllegalArgumentException("Bad mapping: offset " + offset + ", chunk shift " + chunk_shift);
+        this.cells = cells;
+        long bytes = bytes(cells);
+        mappings = new MappedByteBuffer[(int)((bytes + (1L << chunk_shift) - 1) >>> chunk_shift)];
+        for (int i = 0; i < mappings.length; i++) {
+            long start = (long)i << chunk_shift;
+            mappings[i] = channel.map(mode, offset + start, Math.min(1L << chunk_shift, bytes - start));
+        }
+        walls = new WordChunks(mappings, chunk_shift);
+    }
+
+    /**
+     * @param cells - A number of cells.
+     * @return Bytes of walls they take up.
+     */
+    static long bytes(long cells) {
+        return ((cells + CELL_MASK) >>> WORD_SHIFT) * 8;
+    }
+
+    public long cells() {
+        return cells;
+    }
+
+    /**
+     * @return The mapped chunks, in order. Each one's position is 0 and its limit its length.
+     */
+    ByteBuffer[] chunks() {
+        return walls.views();
+    }
+
+    public int wall(int side, long cell) {
+        return (int)(walls.get(cell >>> WORD_SHIFT) >>> ((((int)cell & CELL_MASK) << 1) | side)) & 1;
+    }
+
+    public void set_wall(int side, long cell, int value) {
+        long word = cell >>> WORD_SHIFT;
+        long bit = 1L << ((((int)cell & CELL_MASK) << 1) | side);
+        long old = walls.get(word);
+        walls.set(word, value == CONNECTED ? old | bit : old & ~bit);
+    }
+
+    public void open_wall_atomic(int side, long cell) {
+        walls.or_atomic(cell >>> WORD_SHIFT, 1L << ((((int)cell & CELL_MASK) << 1) | side));
+    }
+
+    public int visited(long cell) {
+        if (visits == null)
+            return 0;
+        return (int)(visits[(int)(cell >>> WORD_SHIFT)] >>> (((int)cell & CELL_MASK) << 1)) & 3;
+    }
+
+    public void set_visited(long cell, int state) {
+        if (visits == null)
+            visits = new long[(int)(bytes(cells) >>> 3)];
+        int word = (int)(cell >>> WORD_SHIFT);
+        int shift = ((int)cell & CELL_MASK) << 1;
+        visits[word] = (visits[word] & ~(3L << shift)) | ((long)(state & 3) << shift);
+    }
+
+    public void clear_visited() {
+        if (visits != null)
+            Arrays.fill(visits, 0);
+    }
+
+    /**
+     * Writes changed walls back to the file.
+     */
+    void force() {
+        for (MappedByteBuffer mapping : mappings)
+            mapping.force();
+    }
+}
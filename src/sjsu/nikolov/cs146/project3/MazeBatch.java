@@ -0,0 +1,233 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * MazeBatch is the command line: it generates and solves a batch of mazes on
+ * a MazeSolveService, writes each one out as asked, and sums up how fast it went.
+ * Maze i of a batch is generated from seed + i, so any maze of a run can be made again alone.
+ *
+ * Outcomes are taken in the order the mazes were submitted, as soon as the
+ * first one is done, so no more than the service has in flight are ever held.
+ */
+final class MazeBatch {
+    // Latencies kept for the percentiles. Longer batches keep a random sample this big.
+    static final int SAMPLES = 1 << 20;
+
+    static final String USAGE = String.join("\n",
+            "Options, as --name value or --name=value:",
+            "  --size N        row length of each maze, up to " + Maze.MAX_SOLVABLE_SIZE + " (default 10)",
+            "  --count N       mazes to generate and solve (default 1)",
+            "  --seed N        seed of the first maze, the next get seed + 1 and so on (default: the clock)",
+            "  --generator G   backtracker, kruskal, prim, wilson, eller or tiled (default backtracker)",
+            "  --solver S      bfs, dfs, astar, bibfs, bitboard or junction (default bfs)",
+            "  --threads N     threads generating and solving (default: one per processor)",
+            "  --in-flight N   mazes held at once, each as big as a maze (default: twice the threads)",
+            "  --output O      none, ascii (each maze and its path, on standard output)",
+            "                  or binary (a maze file per maze) (default ascii)",
+            "  --dir D         where binary output goes (default .)",
+            "  --help          this");
+
+    /**
+     * Options is what the arguments asked for.
+     */
+    static final class Options {
+        int size = 10;
+        long count = 1;
+        long seed = System.nanoTime();
+        MazeGenerator generator = MazeGenerator.BACKTRACKER;
+        MazeSolver solver = MazeSolver.BFS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        // 0 for twice the threads.
+        int in_flight;
+        String output = "ascii";
+        Path dir = Paths.get(".");
+        boolean help;
+    }
+
+    /**
+     * Summary is how a batch went.
+     */
+    static final class Summary {
+        final long mazes;
+        final long cells;
+        final long solved;
+
+        // Wall clock time of the whole batch.
+        final long nanos;
+
+        // Time spent generating and solving each maze, or a sample of them, smallest first.
+        private final long[] latencies;
+
+        Summary(long mazes, long cells, long solved, long nanos, long[] latencies) {
+            this.mazes = mazes;
+            this.cells = cells;
+            this.solved = solved;
+            this.nanos = nanos;
+            this.latencies = latencies;
+            Arrays.sort(latencies);
+        }
+
+        double mazes_per_second() {
+            return mazes * 1e9 / Math.max(nanos, 1);
+        }
+
+        double cells_per_second() {
+            return cells * 1e9 / Math.max(nanos, 1);
+        }
+
+        /**
+         * @param percent - Which percentile, 0 to 100.
+         * @return The latency at or below which that percentage of mazes came in, in nanoseconds.
+         */
+        long latency(double percent) {
+            if (latencies.length == 0)
+                return 0;
+            int rank = (int)Math.ceil(percent / 100 * latencies.length) - 1;
+            return latencies[Math.max(0, Math.min(rank, latencies.length - 1))];
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d mazes (%d solved), %d cells in %.3f s: %.1f mazes/s, %.3g cells/s%n"
+                    + "latency ms: p50 %.3f, p90 %.3f, p99 %.3f, max %.3f",
+                    mazes, solved, cells, nanos / 1e9, mazes_per_second(), cells_per_second(),
+                    latency(50) / 1e6, latency(90) / 1e6, latency(99) / 1e6, latency(100) / 1e6);
+        }
+    }
+
+    /**
+     * Reads the arguments.
+     * @param args - As given to main.
+     * @return The options.
+     * @throws IllegalArgumentException If an argument makes no sense.
+     */
+    static Options parse(String[] args) {
+        Options options = new Options();
+        for (int i = 0; i < args.length; i++) {
+            String name = args[i];
+            String value = null;
+            int equals = name.indexOf('=');
+            if (equals != -1) {
+                value = name.substring(equals + 1);
+                name = name.substring(0, equals);
+            }
+            if (name.equals("--help")) {
+                options.help = true;
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 == args.length)
+                    throw new IllegalArgumentException("No value for " + name);
+                value = args[++i];
+            }
+            switch (name) {
+                case "--size" :
+                    options.size = (int)number(name, value, 1, Integer.MAX_VALUE);
+                    if (options.size > Maze.MAX_SOLVABLE_SIZE)
+                        throw new IllegalArgumentException("Bad --size: " + value + ", mazes over "
+                                + Maze.MAX_SOLVABLE_SIZE + " cells a row are too large to generate and solve in memory");
+                    break;
+                case "--count" : options.count = number(name, value, 1, Long.MAX_VALUE); break;
+                case "--seed" : options.seed = number(name, value, Long.MIN_VALUE, Long.MAX_VALUE); break;
+                case "--generator" : options.generator = MazeGenerator.named(value); break;
+                case "--solver" : options.solver = MazeSolver.named(value); break;
+                case "--threads" : options.threads = (int)number(name, value, 1, Integer.MAX_VALUE); break;
+                case "--in-flight" : options.in_flight = (int)number(name, value, 1, Integer.MAX_VALUE); break;
+                case "--dir" : options.dir = Paths.get(value); break;
+                case "--output" :
+                    if (!value.equals("none") && !value.equals("ascii") && !value.equals("binary"))
+                        throw new IllegalArgumentException("No output called " + value);
+                    options.output = value;
+                    break;
+                default : throw new IllegalArgumentException("No option " + name);
+            }
+        }
+        // The summary counts the cells of the whole batch in a long.
+        if (options.count > Long.MAX_VALUE / ((long)options.size * options.size))
+            throw new IllegalArgumentException("Bad --count: " + options.count + " mazes of "
+                    + options.size + "*" + options.size + " cells are more cells than can be counted");
+        return options;
+    }
+
+    private static long number(String name, String value, long min, long max) {
+        long number;
+        try {
+            number = Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Bad " + name + ": " + value);
+        }
+        if (number < min || number > max)
+            throw new IllegalArgumentException("Bad " + name + ": " + value);
+        return number;
+    }
+
+    /**
+     * Runs a batch.
+     * @param options - What to run.
+     * @param out - Where ascii output and the summary go.
+     * @return How it went.
+     * @throws IOException If binary output could not be written.
+     */
+    static Summary run(Options options, PrintStream out) throws IOException {
+        long cells = (long)options.size * options.size;
+        long total_cells = Math.multiplyExact(options.count, cells);
+        int in_flight = options.in_flight > 0 ? options.in_flight : 2 * options.threads;
+        long[] latencies = new long[(int)Math.min(options.count, SAMPLES)];
+        SplittableRandom sampler = new SplittableRandom(options.seed);
+        long solved = 0;
+
+        long began = System.nanoTime();
+        try (MazeSolveService service = new MazeSolveService(options.threads, in_flight)) {
+            ArrayDeque<CompletableFuture<MazeSolveService.Outcome>> pending = new ArrayDeque<>();
+            long submitted = 0;
+            long done = 0;
+            while (done < options.count) {
+                // Keep the service full, and take the oldest outcome once it is done or nothing else can go in.
+                if (submitted < options.count && pending.size() < in_flight) {
+                    GeneratorConfig config = new GeneratorConfig(options.seed + submitted++);
+                    pending.add(service.submit(new MazeSolveService.Job(options.size, options.generator, config, options.solver)));
+                    if (!pending.peek().isDone())
+                        continue;
+                }
+                MazeSolveService.Outcome outcome;
+                try {
+                    outcome = pending.poll().join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException)e.getCause() : e;
+                }
+                // Past SAMPLES mazes, keep a uniform sample of the latencies (reservoir sampling).
+                long latency = outcome.report.nanos + outcome.solve_nanos;
+                long slot = done < SAMPLES ? done : sampler.nextLong(done + 1);
+                if (slot < SAMPLES)
+                    latencies[(int)slot] = latency;
+                if (outcome.result.solved())
+                    solved++;
+                write(options, out, done, outcome);
+                done++;
+            }
+        }
+        Summary summary = new Summary(options.count, total_cells, solved, System.nanoTime() - began, latencies);
+        out.println(summary);
+        return summary;
+    }
+
+    private static void write(Options options, PrintStream out, long index, MazeSolveService.Outcome outcome) throws IOException {
+        long seed = options.seed + index;
+        if (options.output.equals("ascii")) {
+            out.println("Maze " + index + ", seed " + seed + ", " + options.generator.name() + ": "
+                    + options.solver.name() + " path of " + outcome.result.length + " cells.");
+            new MazeRenderer(outcome.maze).render(outcome.result.overlay(outcome.maze.int_cells()), " %c ", (OutputStream)out);
+            out.println();
+        } else if (options.output.equals("binary"))
+            MazeFile.save(outcome.maze, seed, true, options.dir.resolve("maze-" + seed + ".maze"));
+    }
+}
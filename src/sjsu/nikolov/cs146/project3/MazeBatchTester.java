@@ -0,0 +1,115 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.Test;
+
+
+public class MazeBatchTester
+{
+	private static String run(String... args) throws IOException
+	{
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MazeBatch.run(MazeBatch.parse(args), new PrintStream(bytes, true));
+		return bytes.toString();
+	}
+
+	@Test
+	public void options()
+	{
+		MazeBatch.Options defaults = MazeBatch.parse(new String[0]);
+		assertEquals(10, defaults.size);
+		assertEquals(1, defaults.count);
+		assertEquals("ascii", defaults.output);
+
+		MazeBatch.Options options = MazeBatch.parse(new String[] { "--size=5000", "--count", "7", "--seed", "-3",
+				"--generator", "eller", "--solver=astar", "--threads", "3", "--in-flight=1", "--output", "none" });
+		// No cap on the size any more.
+		assertEquals(5000, options.size);
+		assertEquals(7, options.count);
+		assertEquals(-3, options.seed);
+		assertSame(MazeGenerator.ELLER, options.generator);
+		assertSame(MazeSolver.ASTAR, options.solver);
+		assertEquals(3, options.threads);
+		assertEquals(1, options.in_flight);
+		assertEquals("none", options.output);
+		assertTrue(MazeBatch.parse(new String[] { "--help" }).help);
+	}
+
+	@Test
+	public void bad_options()
+	{
+		String[][] bad = { { "--size", "0" }, { "--size", "ten" }, { "--size", "46341" }, { "--count" }, { "--output", "pdf" },
+				{ "--solver", "guess" }, { "--colour", "red" }, { "--threads=0" },
+				{ "--size", "46340", "--count", "4611686018427387904" } };
+		for (String[] args : bad)
+			try {
+				MazeBatch.parse(args);
+				fail(String.join(" ", args));
+			} catch (IllegalArgumentException e) {
+			}
+		assertEquals(46340, MazeBatch.parse(new String[] { "--size", "46340", "--count", "1000" }).size);
+		try {
+			MazeBatch.parse(new String[] { "--size=100000" });
+			fail();
+		} catch (IllegalArgumentException e) {
+			assertTrue(e.getMessage(), e.getMessage().startsWith("Bad --size: 100000"));
+		}
+	}
+
+	@Test
+	public void ascii_by_seed() throws IOException
+	{
+		String one = run("--size", "6", "--count", "3", "--seed", "11", "--threads", "2");
+		String two = run("--size", "6", "--count", "3", "--seed", "11", "--threads", "1");
+		// The same mazes in the same order, whatever the threads; only the timings differ.
+		String mazes = one.substring(0, one.indexOf("3 mazes"));
+		assertEquals(mazes, two.substring(0, two.indexOf("3 mazes")));
+		assertTrue(mazes.contains("Maze 2, seed 13, backtracker: bfs path of "));
+
+		// Maze 1 of the batch is the maze of its own seed.
+		Maze maze = new Maze(6);
+		maze.generate(MazeGenerator.BACKTRACKER, new GeneratorConfig(12));
+		assertTrue(mazes.contains("Maze 1, seed 12, backtracker: bfs path of " + maze.bfs(0, 35, false).length + " cells."));
+	}
+
+	@Test
+	public void throughput() throws IOException
+	{
+		MazeBatch.Options options = MazeBatch.parse(new String[] { "--size", "64", "--count", "40", "--generator", "kruskal",
+				"--solver", "dfs", "--threads", "2", "--in-flight", "3", "--output", "none" });
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		MazeBatch.Summary summary = MazeBatch.run(options, new PrintStream(bytes, true));
+		assertEquals(40, summary.mazes);
+		assertEquals(40, summary.solved);
+		assertEquals(40 * 64 * 64, summary.cells);
+		assertTrue(summary.mazes_per_second() > 0);
+		assertTrue(summary.latency(50) > 0);
+		assertTrue(summary.latency(50) <= summary.latency(99));
+		assertTrue(summary.latency(99) <= summary.latency(100));
+		// Nothing but the summary.
+		assertTrue(bytes.toString().startsWith("40 mazes (40 solved), 163840 cells in "));
+		assertTrue(bytes.toString().contains("latency ms: p50 "));
+	}
+
+	@Test
+	public void binary_files() throws IOException
+	{
+		Path dir = Files.createTempDirectory("mazes");
+		run("--size", "20", "--count", "2", "--seed", "5", "--generator", "prim", "--output", "binary", "--dir", dir.toString());
+		for (long seed = 5; seed < 7; seed++) {
+			Path file = dir.resolve("maze-" + seed + ".maze");
+			Maze expected = new Maze(20);
+			expected.generate(MazeGenerator.PRIM, new GeneratorConfig(seed));
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assertEquals(seed, opened.seed);
+				assertEquals(expected.wall_hash(), opened.maze().wall_hash());
+			}
+			Files.delete(file);
+		}
+		Files.delete(dir);
+	}
+}
@@ -0,0 +1,251 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * MazeFile is the binary file format for mazes.
+ * A 64-byte header, all little-endian:
+ * <pre>
+ *  0  int   magic, "MAZE"
+ *  4  int   version
+ *  8  int   flags, bit 0 set if the checksum is filled in
+ * 12  int   size, the row length
+ * 16  long  cells, size*size
+ * 24  long  seed the maze was generated from
+ * 32  int   CRC32C of the walls, or 0
+ * 36  int   offset of the walls, 64
+ * 40  int   layout of the cell numbers, 0 row-major, 1 tiled
+ * 44        zeros up to 64
+ * </pre>
+ * then the walls exactly as PackedMazeStorage keeps them: 2 bits per cell,
+ * EAST then SOUTH, 32 cells to a little-endian long, in cell number order.
+ * Files from before the layout field have zeros there, so they read as row-major.
+ * Reading and writing go through mapped buffers. An opened file's maze
+ * reads its walls straight from the mapping, so opening costs nothing
+ * however big the file, unless the checksum has to be checked.
+ */
+final class MazeFile implements AutoCloseable {
+    static final int MAGIC = 0x455A414D;
+    static final int VERSION = 1;
+    static final int CHECKSUM = 1;
+    static final int HEADER = 64;
+
+    // Where the CRC32C sits in the header.
+    private static final int CRC_AT = 32;
+
+    // What the header says.
+    final int version;
+    final int flags;
+    final long seed;
+    final int checksum;
+
+    private final FileChannel channel;
+    private final boolean writable;
+    private final MappedMazeStorage storage;
+    private final Maze maze;
+
+    private MazeFile(FileChannel channel, ByteBuffer header, boolean writable, int chunk_shift) throws IOException {
+        this.channel = channel;
+        this.writable = writable;
+        if (header.getInt(0) != MAGIC)
+            throw new IOException("Not a maze file.");
+        version = header.getInt(4);
+        if (version != VERSION)
+            throw new IOException("Unknown maze file version " + version + ".");
+        flags = header.getInt(8);
+        int size = header.getInt(12);
+        long cells = header.getLong(16);
+        seed = header.getLong(24);
+        checksum = header.getInt(32);
+        int offset = header.getInt(36);
+        int layout = header.getInt(40);
+        if (size < 1 || cells != (long)size * size || offset < HEADER || offset % 8 != 0)
+            throw new IOException("Bad maze file header: size " + size + ", " + cells + " cells, walls at " + offset + ".");
+        if (channel.size() < offset + MappedMazeStorage.bytes(cells))
+            throw new IOException("Maze file is cut short: " + channel.size() + " bytes.");
+
+        storage = new MappedMazeStorage(channel, offset, cells,
+                writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY, chunk_shift);
+        if ((flags & CHECKSUM) != 0 && checksum(storage.chunks()) != checksum)
+            throw new IOException("Maze file checksum does not match: it is corrupt.");
+        try {
+            maze = new Maze(size, storage, MazeLayout.of(layout, size));
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Bad maze file header: " + e.getMessage() + ".");
+        }
+    }
+
+    /**
+     * Opens a maze file. The maze is read off the mapping as it is used.
+     * If the file has a checksum it is checked first, which reads every wall once.
+     * @param file - The file.
+     * @param writable - Whether changes to the maze go back to the file.
+     * @return The open file. Close it when done with the maze.
+     */
+    static MazeFile open(Path file, boolean writable) throws IOException {
+        return open(file, writable, WordChunks.CHUNK_SHIFT);
+    }
+
+    /**
+     * Same as open, with the size of the mappings given, so that small files can be cut into many.
+     * @param file - The file.
+     * @param writable - Whether changes to the maze go back to the file.
+     * @param chunk_shift - Bytes per mapping, as a shift.
+     * @return The open file.
+     */
+    static MazeFile open(Path file, boolean writable, int chunk_shift) throws IOException {
+        FileChannel channel = writable
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining())
+                if (channel.read(header, header.position()) == -1)
+                    throw new IOException("Not a maze file: shorter than its header.");
+            return new MazeFile(channel, header, writable, chunk_shift);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return The maze, reading from the file.
+     */
+    Maze maze() {
+        return maze;
+    }
+
+    /**
+     * Writes changes to a writable maze back to the file. If the file has a
+     * checksum, it is worked out again over the walls and written to the header,
+     * so the file still opens; that reads every wall once.
+     * A file opened read-only has no changes to write, so this does nothing.
+     */
+    void force() throws IOException {
+        if (!writable)
+            return;
+        storage.force();
+        if ((flags & CHECKSUM) == 0)
+            return;
+        ByteBuffer crc = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, checksum(storage.chunks()));
+        while (crc.hasRemaining())
+            channel.write(crc, CRC_AT + crc.position());
+        channel.force(false);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Saves a maze, replacing whatever was in the file.
+     * @param maze - The maze.
+     * @param seed - The seed it was generated from, to keep in the header.
+     * @param checksum - Whether to write a checksum, so corruption is caught on open.
+     * @param file - Where to save it.
+     */
+    static void save(Maze maze, long seed, boolean checksum, Path file) throws IOException {
+        long cells = maze.cells();
+        long bytes = MappedMazeStorage.bytes(cells);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // Copy the walls over a word at a time: straight from the array of a packed
+            // storage, through the cells for anything else.
+            long[] words = maze.storage instanceof PackedMazeStorage ? ((PackedMazeStorage)maze.storage).walls : null;
+            CRC32C crc = new CRC32C();
+            long word = 0;
+            for (long start = 0; start < bytes; start += 1L << WordChunks.CHUNK_SHIFT) {
+                int length = (int)Math.min(1L << WordChunks.CHUNK_SHIFT, bytes - start);
+                MappedByteBuffer chunk = channel.map(FileChannel.MapMode.READ_WRITE, HEADER + start, length);
+                chunk.order(ByteOrder.LITTLE_ENDIAN);
+                if (words != null)
+                    chunk.asLongBuffer().put(words, (int)word, length / 8);
+                else
+                    for (int at = 0; at < length; at += 8)
+                        chunk.putLong(at, pack(maze.storage, word + at / 8));
+                word += length / 8;
+                chunk.force();
+                crc.update(chunk.position(0));
+            }
+            write_header(channel, maze.size(), maze.layout.kind, seed, checksum ? (int)crc.getValue() : 0, checksum);
+        }
+    }
+
+    /**
+     * Generates a maze with Eller's algorithm straight into a maze file, never
+     * holding more than a row. It opens to the same maze generate would make,
+     * in the row-major layout.
+     * @param size - The row length.
+     * @param config - Where the randomness comes from. Its seed goes in the header.
+     * @param checksum - Whether to write a checksum.
+     * @param file - Where to save it.
+     */
+    static void generate(int size, GeneratorConfig config, boolean checksum, Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            channel.position(HEADER);
+            EllerGenerator.stream(size, config, new WritableByteChannel() {
+                public int write(ByteBuffer buffer) throws IOException {
+                    // Only what actually got written goes into the checksum.
+                    ByteBuffer written = buffer.duplicate();
+                    int count = channel.write(buffer);
+                    crc.update(written.limit(written.position() + count));
+                    return count;
+                }
+
+                public boolean isOpen() {
+                    return channel.isOpen();
+                }
+
+                public void close() {
+                }
+            });
+            write_header(channel, size, MazeLayout.ROW_MAJOR, config.seed, checksum ? (int)crc.getValue() : 0, checksum);
+        }
+    }
+
+    /**
+     * @param chunks - The walls, in order.
+     * @return Their CRC32C.
+     */
+    private static int checksum(ByteBuffer[] chunks) {
+        CRC32C crc = new CRC32C();
+        for (ByteBuffer chunk : chunks)
+            crc.update(chunk);
+        return (int)crc.getValue();
+    }
+
+    /**
+     * @return Wall word number word of a storage, built from its cells.
+     */
+    private static long pack(MazeStorage storage, long word) {
+        long result = 0;
+        long first = word * PackedMazeStorage.CELLS_PER_WORD;
+        long last = Math.min(first + PackedMazeStorage.CELLS_PER_WORD, storage.cells());
+        for (long cell = first; cell < last; cell++) {
+            int shift = (int)(cell - first) << 1;
+            result |= (long)storage.wall(MazeStorage.EAST, cell) << shift;
+            result |= (long)storage.wall(MazeStorage.SOUTH, cell) << (shift + 1);
+        }
+        return result;
+    }
+
+    private static void write_header(FileChannel channel, int size, int layout, long seed, int crc, boolean checksum) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+        header.putInt(MAGIC).putInt(VERSION).putInt(checksum ? CHECKSUM : 0).putInt(size)
+                .putLong((long)size * size).putLong(seed).putInt(crc).putInt(HEADER).putInt(layout);
+        header.clear();
+        while (header.hasRemaining())
+            channel.write(header, header.position());
+    }
+}
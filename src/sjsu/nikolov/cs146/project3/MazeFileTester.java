@@ -0,0 +1,246 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.junit.Test;
+
+
+public class MazeFileTester
+{
+	private static void assert_same_walls(Maze expected, Maze actual)
+	{
+		assertEquals(expected.cells(), actual.cells());
+		for (long cell = 0; cell < expected.cells(); cell++) {
+			assertEquals(expected.storage.wall(MazeStorage.EAST, cell), actual.storage.wall(MazeStorage.EAST, cell));
+			assertEquals(expected.storage.wall(MazeStorage.SOUTH, cell), actual.storage.wall(MazeStorage.SOUTH, cell));
+		}
+	}
+
+	private static void flip_byte(Path file, long at) throws IOException
+	{
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer one = ByteBuffer.allocate(1);
+			channel.read(one, at);
+			one.put(0, (byte)(one.get(0) ^ 0x10)).clear();
+			channel.write(one, at);
+		}
+	}
+
+	@Test
+	public void saved_and_opened() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			Maze maze = new Maze(45);
+			maze.mazify(new GeneratorConfig(12));
+			MazeFile.save(maze, 12, true, file);
+			assertEquals(MazeFile.HEADER + 8 * ((45 * 45 + 31) / 32), Files.size(file));
+
+			// Tiny mappings, so cells fall in many of them.
+			try (MazeFile opened = MazeFile.open(file, false, 4)) {
+				assertEquals(12, opened.seed);
+				assertEquals(MazeFile.VERSION, opened.version);
+				assert_same_walls(maze, opened.maze());
+				assertEquals(maze.bfs(0, 2024, false).length, opened.maze().bfs(0, 2024, false).length);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void any_storage_saved() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			int[][] walls = { { 1, 0, 1, 0 }, { 0, 1, 0, 0 } };
+			Maze maze = new Maze(walls);
+			MazeFile.save(maze, 0, false, file);
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assert_same_walls(maze, opened.maze());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void layout_kept() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			Maze maze = new Maze(MazeLayout.tiled(128));
+			maze.mazify(new GeneratorConfig(3));
+			MazeFile.save(maze, 3, true, file);
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assertEquals(MazeLayout.TILED, opened.maze().layout.kind);
+				assert_same_walls(maze, opened.maze());
+				assertEquals(maze.bfs(0, 128 * 128 - 1, false).length, opened.maze().bfs(0, 128 * 128 - 1, false).length);
+			}
+
+			// A layout that does not fit the size is a bad header.
+			MazeFile.save(new Maze(10), 0, false, file);
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				channel.write(ByteBuffer.wrap(new byte[] { MazeLayout.TILED }), 40);
+			}
+			try {
+				MazeFile.open(file, false).close();
+				fail("Tiled layout of size 10 opened.");
+			} catch (IOException expected) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void corruption_caught() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			Maze maze = new Maze(20);
+			maze.mazify(new GeneratorConfig(1));
+			MazeFile.save(maze, 1, true, file);
+			flip_byte(file, MazeFile.HEADER + 30);
+			try {
+				MazeFile.open(file, false).close();
+				fail("Corrupt file opened.");
+			} catch (IOException expected) {
+			}
+
+			// Without a checksum, nothing is checked.
+			MazeFile.save(maze, 1, false, file);
+			flip_byte(file, MazeFile.HEADER + 30);
+			MazeFile.open(file, false).close();
+
+			flip_byte(file, 0);
+			try {
+				MazeFile.open(file, false).close();
+				fail("Bad magic opened.");
+			} catch (IOException expected) {
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void writable() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			MazeFile.save(new Maze(10), 0, false, file);
+			try (MazeFile opened = MazeFile.open(file, true, 3)) {
+				opened.maze().mazify(new GeneratorConfig(4));
+				opened.force();
+			}
+			Maze expected = new Maze(10);
+			expected.mazify(new GeneratorConfig(4));
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assert_same_walls(expected, opened.maze());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void writable_with_checksum() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			Maze expected = new Maze(40);
+			expected.mazify(new GeneratorConfig(6));
+			MazeFile.save(expected, 6, true, file);
+			try (MazeFile opened = MazeFile.open(file, true, 4)) {
+				opened.maze().render_unsolvable();
+				opened.force();
+			}
+			expected.render_unsolvable();
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assertEquals(MazeFile.CHECKSUM, opened.flags & MazeFile.CHECKSUM);
+				assert_same_walls(expected, opened.maze());
+				assertFalse(opened.maze().bfs(0, 1599, false).solved());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void force_read_only() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			Maze expected = new Maze(20);
+			expected.mazify(new GeneratorConfig(8));
+			MazeFile.save(expected, 8, true, file);
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				opened.force();
+				assert_same_walls(expected, opened.maze());
+			}
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assertEquals(MazeFile.CHECKSUM, opened.flags & MazeFile.CHECKSUM);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void too_big_to_solve() throws Exception
+	{
+		// Just past the int limit: a 512MB file, left sparse on disk.
+		int size = 46341;
+		long cells = (long)size * size;
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+				ByteBuffer header = ByteBuffer.allocate(MazeFile.HEADER).order(ByteOrder.LITTLE_ENDIAN);
+				header.putInt(MazeFile.MAGIC).putInt(MazeFile.VERSION).putInt(0).putInt(size)
+						.putLong(cells).putLong(0).putInt(0).putInt(MazeFile.HEADER).putInt(MazeLayout.ROW_MAJOR);
+				channel.write(header.clear(), 0);
+				channel.write(ByteBuffer.allocate(1), MazeFile.HEADER + MappedMazeStorage.bytes(cells) - 1);
+			}
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				Maze maze = opened.maze();
+				assertEquals(cells, maze.cells());
+				assertEquals(0, maze.storage.wall(MazeStorage.EAST, cells - 1));
+
+				int before = SolverWorkspace.current().cells.length;
+				try {
+					maze.bfs(0, 0, false);
+					fail("Solved a maze past the int limit");
+				} catch (IllegalStateException e) {
+					assertTrue(e.getMessage(), e.getMessage().contains("too large to generate or solve"));
+				}
+				// Turned away before the workspace grew.
+				assertEquals(before, SolverWorkspace.current().cells.length);
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void eller_generated() throws Exception
+	{
+		Path file = Files.createTempFile("maze", ".maze");
+		try {
+			MazeFile.generate(77, new GeneratorConfig(8), true, file);
+			Maze expected = new Maze(77);
+			expected.generate(MazeGenerator.ELLER, new GeneratorConfig(8));
+			try (MazeFile opened = MazeFile.open(file, false)) {
+				assertEquals(8, opened.seed);
+				assert_same_walls(expected, opened.maze());
+			}
+		} finally {
+			Files.delete(file);
+		}
+	}
+}
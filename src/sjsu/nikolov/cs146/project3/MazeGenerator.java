@@ -0,0 +1,101 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+
+/**
+ * MazeGenerator is an algorithm that turns a blank grid into a perfect maze.
+ * They differ in the texture of the mazes they make, in speed, and in how much
+ * scratch memory they need, so each one says what it costs.
+ * Use them through Maze.generate, which times the run.
+ */
+interface MazeGenerator {
+    // The generators we have.
+    MazeGenerator BACKTRACKER = new BacktrackerGenerator();
+    MazeGenerator KRUSKAL = new KruskalGenerator();
+    MazeGenerator PRIM = new PrimGenerator();
+    MazeGenerator WILSON = new WilsonGenerator();
+    MazeGenerator ELLER = new EllerGenerator();
+    MazeGenerator TILED = new TiledGenerator(256, ForkJoinPool.commonPool());
+    MazeGenerator[] ALL = { BACKTRACKER, KRUSKAL, PRIM, WILSON, ELLER, TILED };
+
+    /**
+     * Report is what a generation run cost.
+     */
+    final class Report {
+        final String generator;
+        final long cells;
+        final long nanos;
+        final long footprint;
+
+        /**
+         * @param generator - The generator's name.
+         * @param cells - Cells generated.
+         * @param nanos - Time taken.
+         * @param footprint - Scratch bytes used on top of the maze itself.
+         */
+        Report(String generator, long cells, long nanos, long footprint) {
+            this.generator = generator;
+            this.cells = cells;
+            this.nanos = nanos;
+            this.footprint = footprint;
+        }
+
+        /**
+         * @return Generation speed.
+         */
+        double cells_per_second() {
+            return nanos == 0 ? 0 : cells * 1e9 / nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d cells in %.1f ms, %.0f cells/s, %d bytes scratch",
+                    generator, cells, nanos / 1e6, cells_per_second(), footprint);
+        }
+    }
+
+    /**
+     * @return A short name, e.g. "kruskal".
+     */
+    String name();
+
+    /**
+     * Knocks walls until the maze is perfect. The maze must have all of its walls up.
+     * @param maze - The maze to carve.
+     * @param rand - Where the randomness comes from.
+     */
+    void generate(Maze maze, RandomGenerator rand);
+
+    /**
+     * @param size - The row length of the maze.
+     * @return Bytes of scratch memory a run needs on top of the maze itself.
+     */
+    long footprint(int size);
+
+    /**
+     * Picks one of the set bits of a mask, each with the same chance. No retrying.
+     * @param mask - Directions to choose from, bit 0 EAST, bit 1 SOUTH, bit 2 WEST, bit 3 NORTH.
+     * @param rand - Where the randomness comes from.
+     * @return The chosen direction, or -1 if the mask is empty.
+     */
+    static int random_direction(int mask, RandomGenerator rand) {
+        if (mask == 0)
+            return -1;
+        int pick = rand.nextInt(Integer.bitCount(mask));
+        while (pick-- > 0)
+            mask &= mask - 1;
+        return Integer.numberOfTrailingZeros(mask);
+    }
+
+    /**
+     * Finds a generator by name.
+     * @param name - As returned by name().
+     * @return The generator.
+     */
+    static MazeGenerator named(String name) {
+        for (MazeGenerator generator : ALL)
+            if (generator.name().equalsIgnoreCase(name))
+                return generator;
+        throw new IllegalArgumentException("No generator called " + name);
+    }
+}
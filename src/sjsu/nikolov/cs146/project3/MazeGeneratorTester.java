@@ -0,0 +1,149 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+
+public class MazeGeneratorTester
+{
+	/**
+	 * A perfect maze on N cells has N - 1 passages and reaches every cell.
+	 */
+	static void assert_perfect(Maze maze)
+	{
+		long passages = 0;
+		for (long cell = 0; cell < maze.cells(); cell++)
+			passages += maze.storage.wall(MazeStorage.EAST, cell) + maze.storage.wall(MazeStorage.SOUTH, cell);
+		assertEquals(maze.cells() - 1, passages);
+		UnionFind sets = new UnionFind(maze.int_cells());
+		for (int cell = 0; cell < maze.cells(); cell++) {
+			if (maze.storage.wall(MazeStorage.EAST, cell) == MazeStorage.CONNECTED)
+				assertTrue(sets.union(cell, maze.neighbor(cell, 0)));
+			if (maze.storage.wall(MazeStorage.SOUTH, cell) == MazeStorage.CONNECTED)
+				assertTrue(sets.union(cell, maze.neighbor(cell, 1)));
+		}
+	}
+
+	@Test
+	public void all_perfect()
+	{
+		for (MazeGenerator generator : MazeGenerator.ALL)
+			for (int size : new int[] { 1, 2, 7, 40 }) {
+				Maze maze = new Maze(size);
+				MazeGenerator.Report report = maze.generate(generator, new GeneratorConfig(size));
+				assert_perfect(maze);
+				assertEquals(maze.cells(), report.cells);
+				assertTrue(report.footprint > 0);
+			}
+	}
+
+	@Test
+	public void all_deterministic()
+	{
+		for (MazeGenerator generator : MazeGenerator.ALL) {
+			Maze first = new Maze(30);
+			first.generate(generator, new GeneratorConfig(11));
+			Maze second = new Maze(30);
+			second.generate(generator, new GeneratorConfig(11));
+			for (long cell = 0; cell < first.cells(); cell++) {
+				assertEquals(first.storage.wall(MazeStorage.EAST, cell), second.storage.wall(MazeStorage.EAST, cell));
+				assertEquals(first.storage.wall(MazeStorage.SOUTH, cell), second.storage.wall(MazeStorage.SOUTH, cell));
+			}
+		}
+	}
+
+	@Test
+	public void solvable()
+	{
+		for (MazeGenerator generator : MazeGenerator.ALL) {
+			Maze maze = new Maze(10);
+			System.out.println(maze.generate(generator, new GeneratorConfig(3)));
+			assertEquals(maze.bfs(0, 99, false).length, maze.dfs(0, 99, false).length);
+		}
+	}
+
+	@Test
+	public void eller_footprint_is_a_row()
+	{
+		assertEquals(13L * 100000, MazeGenerator.ELLER.footprint(100000));
+		assertSame(MazeGenerator.KRUSKAL, MazeGenerator.named("Kruskal"));
+	}
+
+	@Test
+	public void eller_stream_matches_generate() throws Exception
+	{
+		// 37 is not a multiple of 32, so rows straddle words.
+		for (int size : new int[] { 1, 32, 37 }) {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			long written = EllerGenerator.stream(size, new GeneratorConfig(8), Channels.newChannel(bytes));
+			assertEquals(bytes.size(), written);
+			assertEquals(((long)size * size + 31) / 32 * 8, written);
+
+			PackedMazeStorage storage = new PackedMazeStorage((long)size * size);
+			storage.read_walls(Channels.newChannel(new ByteArrayInputStream(bytes.toByteArray())));
+			Maze streamed = new Maze(size, storage);
+			assert_perfect(streamed);
+
+			Maze generated = new Maze(size);
+			generated.generate(MazeGenerator.ELLER, new GeneratorConfig(8));
+			for (long cell = 0; cell < generated.cells(); cell++) {
+				assertEquals(generated.storage.wall(MazeStorage.EAST, cell), storage.wall(MazeStorage.EAST, cell));
+				assertEquals(generated.storage.wall(MazeStorage.SOUTH, cell), storage.wall(MazeStorage.SOUTH, cell));
+			}
+
+			ByteArrayOutputStream again = new ByteArrayOutputStream();
+			storage.write_walls(Channels.newChannel(again));
+			assertArrayEquals(bytes.toByteArray(), again.toByteArray());
+		}
+	}
+
+	@Test
+	public void eller_stream_to_file() throws Exception
+	{
+		Path file = Files.createTempFile("eller", ".walls");
+		try {
+			long written = EllerGenerator.stream(300, new GeneratorConfig(2), file);
+			assertEquals(written, Files.size(file));
+		} finally {
+			Files.delete(file);
+		}
+	}
+
+	@Test
+	public void tiled_perfect()
+	{
+		// Tile sizes that do and do not divide the maze.
+		for (int tile : new int[] { 1, 5, 8, 64 })
+			for (int size : new int[] { 1, 16, 37 }) {
+				Maze maze = new Maze(size);
+				maze.generate(new TiledGenerator(tile, ForkJoinPool.commonPool()), new GeneratorConfig(tile + size));
+				assert_perfect(maze);
+			}
+	}
+
+	@Test
+	public void tiled_deterministic()
+	{
+		// The thread count must not matter, only the seed and the tiles.
+		ForkJoinPool one = new ForkJoinPool(1);
+		ForkJoinPool four = new ForkJoinPool(4);
+		try {
+			Maze first = new Maze(100);
+			first.generate(new TiledGenerator(16, one), new GeneratorConfig(21));
+			Maze second = new Maze(100);
+			second.generate(new TiledGenerator(16, four), new GeneratorConfig(21));
+			for (long cell = 0; cell < first.cells(); cell++) {
+				assertEquals(first.storage.wall(MazeStorage.EAST, cell), second.storage.wall(MazeStorage.EAST, cell));
+				assertEquals(first.storage.wall(MazeStorage.SOUTH, cell), second.storage.wall(MazeStorage.SOUTH, cell));
+			}
+		} finally {
+			one.shutdown();
+			four.shutdown();
+		}
+	}
+}
@@ -0,0 +1,210 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * MazeIndex answers path queries between any two cells of a perfect maze.
+ * A perfect maze is a tree, so there is exactly one path between two cells,
+ * and it goes through their lowest common ancestor once the tree is rooted.
+ * Building the index walks the tree once, rooted at cell 0, and takes O(N).
+ * After that the length of any path is O(1) and the path itself O(length).
+ *
+ * The ancestor is found with a range minimum over the preorder: for cells
+ * u and v with u first in preorder, it is the parent of the shallowest cell
+ * after u up to v. The range minimum splits the preorder into blocks of 64.
+ * A sparse table covers whole blocks, and inside a block a 64-bit mask per
+ * position, the stack of smaller depths to its left, finds the minimum with
+ * one trailing-zeros count.
+ */
+final class MazeIndex {
+    private static final int BLOCK_SHIFT = 6;
+    private static final int BLOCK = 1 << BLOCK_SHIFT;
+
+    // Cells in the maze.
+    private final int cells;
+
+    // The rooted tree: parent (-1 at the root), depth, and preorder position of every cell.
+    private final int[] parent;
+    private final int[] depth;
+    private final int[] position;
+
+    // The cells in preorder.
+    private final int[] preorder;
+
+    // Bit j of masks[i]: position (i & ~63) + j is on the stack of minima ending at i.
+    private final long[] masks;
+
+    // table[k][b]: preorder position of the shallowest cell in blocks b to b + 2^k - 1.
+    private final int[][] table;
+
+    /**
+     * Builds the index of a perfect maze.
+     * @param maze - The maze. Must be perfect: connected and without loops.
+     */
+    MazeIndex(Maze maze) {
+        cells = maze.int_cells();
+        parent = new int[cells];
+        depth = new int[cells];
+        position = new int[cells];
+        preorder = new int[cells];
+
+        // Depth-first from cell 0. Children are numbered when they come off the
+        // stack, so every subtree takes up one run of the preorder.
+        int[] stack = new int[cells];
+        int pointer = 0;
+        Arrays.fill(parent, -2);
+        parent[0] = -1;
+        stack[pointer++] = 0;
+        int count = 0;
+        while (pointer > 0) {
+            int current = stack[--pointer];
+            position[current] = count;
+            preorder[count++] = current;
+            for (int direction = 0; direction < 4; direction++) {
+                int next = maze.passage(current, direction);
+                if (next == -1 || next == parent[current])
+                    continue;
+                if (parent[next] != -2)
+                    throw new IllegalArgumentException("Not a perfect maze: there is a loop through cell " + next + ".");
+                parent[next] = current;
+                depth[next] = depth[current] + 1;
+                stack[pointer++] = next;
+            }
+        }
+        if (count != cells)
+            throw new IllegalArgumentException("Not a perfect maze: only " + count + " of " + cells + " cells are connected.");
+
+        // Stack masks, block by block.
+        masks = new long[cells];
+        int blocks = (cells + BLOCK - 1) >>> BLOCK_SHIFT;
+        int[] minimum = new int[blocks];
+        for (int block = 0; block < blocks; block++) {
+            int first = block << BLOCK_SHIFT;
+            int last = Math.min(first + BLOCK, cells);
+            long mask = 0;
+            for (int i = first; i < last; i++) {
+                int d = depth[preorder[i]];
+                while (mask != 0 && depth[preorder[first + 63 - Long.numberOfLeadingZeros(mask)]] > d)
+                    mask &= ~Long.highestOneBit(mask);
+                mask |= 1L << i;
+                masks[i] = mask;
+            }
+            minimum[block] = first + Long.numberOfTrailingZeros(masks[last - 1]);
+        }
+
+        // Sparse table over the block minima.
+        int levels = 32 - Integer.numberOfLeadingZeros(blocks);
+        table = new int[levels][];
+        table[0] = minimum;
+        for (int k = 1; k < levels; k++) {
+            int span = 1 << (k - 1);
+            int[] below = table[k - 1];
+            int[] level = new int[blocks - (1 << k) + 1];
+            for (int b = 0; b < level.length; b++)
+                level[b] = shallower(below[b], below[b + span]);
+            table[k] = level;
+        }
+    }
+
+    /**
+     * @param a - A preorder position.
+     * @param b - Another preorder position.
+     * @return Whichever of the two holds the shallower cell.
+     */
+    private int shallower(int a, int b) {
+        return depth[preorder[b]] < depth[preorder[a]] ? b : a;
+    }
+
+    /**
+     * @param from - The first preorder position.
+     * @param to - The last preorder position, in the same block.
+     * @return The position of the shallowest cell between them.
+     */
+    private int in_block(int from, int to) {
+        return (to & ~(BLOCK - 1)) + Long.numberOfTrailingZeros(masks[to] & (-1L << from));
+    }
+
+    /**
+     * @param from - The first preorder position.
+     * @param to - The last preorder position, not before from.
+     * @return The position of the shallowest cell between them.
+     */
+    private int minimum(int from, int to) {
+        int first = from >>> BLOCK_SHIFT;
+        int last = to >>> BLOCK_SHIFT;
+        if (first == last)
+            return in_block(from, to);
+        int best = shallower(in_block(from, (first << BLOCK_SHIFT) + BLOCK - 1), in_block(last << BLOCK_SHIFT, to));
+        if (last - first > 1) {
+            int k = 31 - Integer.numberOfLeadingZeros(last - first - 1);
+            best = shallower(best, shallower(table[k][first + 1], table[k][last - (1 << k)]));
+        }
+        return best;
+    }
+
+    /**
+     * @param u - A cell.
+     * @param v - Another cell.
+     * @return The cell where the paths from u and v to cell 0 meet.
+     */
+    int ancestor(int u, int v) {
+        if (u == v)
+            return u;
+        int a = position[u];
+        int b = position[v];
+        if (a > b) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        return parent[preorder[minimum(a + 1, b)]];
+    }
+
+    /**
+     * @param start - A cell.
+     * @param end - Another cell.
+     * @return Cells on the path between them, both ends included.
+     */
+    int length(int start, int end) {
+        return depth[start] + depth[end] - 2 * depth[ancestor(start, end)] + 1;
+    }
+
+    /**
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @return The path between them, start first.
+     */
+    int[] path(int start, int end) {
+        int[] result = new int[length(start, end)];
+        write(start, end, result);
+        return result;
+    }
+
+    /**
+     * Same as path, as a result the solvers would give. Nothing is searched,
+     * so only the cells of the path count as visited.
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @return The result. Its path stays valid for as long as the index.
+     */
+    SolveResult solve(int start, int end) {
+        int length = length(start, end);
+        return new SolveResult(start, end, length, length, into -> write(start, end, into));
+    }
+
+    /**
+     * Up from the start to the meeting cell, then up from the end, filled in backwards.
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @param into - An array of the path's length.
+     */
+    private void write(int start, int end, int[] into) {
+        int meet = ancestor(start, end);
+        int i = 0;
+        for (int current = start; current != meet; current = parent[current])
+            into[i++] = current;
+        into[i] = meet;
+        int j = into.length - 1;
+        for (int current = end; current != meet; current = parent[current])
+            into[j--] = current;
+    }
+}
@@ -0,0 +1,63 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+
+public class MazeIndexTester
+{
+	@Test
+	public void same_as_bfs()
+	{
+		// Several sizes, so blocks of 64 end in every sort of place.
+		for (int size : new int[] { 1, 2, 7, 8, 30, 91 }) {
+			Maze maze = new Maze(size);
+			maze.generate(MazeGenerator.KRUSKAL, new GeneratorConfig(size));
+			MazeIndex index = new MazeIndex(maze);
+			SplittableRandom rand = new SplittableRandom(size);
+			for (int query = 0; query < 300; query++) {
+				int start = rand.nextInt(size * size);
+				int end = rand.nextInt(size * size);
+				SolveResult bfs = maze.bfs(start, end, false);
+				assertEquals(bfs.length, index.length(start, end));
+				assertArrayEquals(bfs.path(), index.path(start, end));
+				assertArrayEquals(bfs.path(), index.solve(start, end).path());
+			}
+		}
+	}
+
+	@Test
+	public void ancestor()
+	{
+		Maze maze = new Maze(40);
+		maze.mazify(new GeneratorConfig(3));
+		MazeIndex index = new MazeIndex(maze);
+		// Cell 0 is the root.
+		assertEquals(0, index.ancestor(0, 1599));
+		assertEquals(77, index.ancestor(77, 77));
+		int[] path = index.path(0, 1599);
+		for (int cell : path)
+			assertEquals(cell, index.ancestor(cell, 1599));
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void loops_rejected()
+	{
+		Maze maze = new Maze(10);
+		maze.mazify(new GeneratorConfig(1));
+		maze.set_wall(MazeStorage.EAST, 0, MazeStorage.CONNECTED);
+		maze.set_wall(MazeStorage.SOUTH, 0, MazeStorage.CONNECTED);
+		maze.set_wall(MazeStorage.EAST, 10, MazeStorage.CONNECTED);
+		maze.set_wall(MazeStorage.SOUTH, 1, MazeStorage.CONNECTED);
+		new MazeIndex(maze);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void disconnected_rejected()
+	{
+		Maze maze = new Maze(10);
+		maze.mazify(new GeneratorConfig(1));
+		maze.render_unsolvable();
+		new MazeIndex(maze);
+	}
+}
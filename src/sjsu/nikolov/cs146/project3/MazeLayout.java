@@ -0,0 +1,192 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * MazeLayout decides which cell number each (row, col) of a maze gets, and so
+ * where the cell sits in the storage and in every per-cell array of the solvers.
+ * Nothing outside this class adds 1 or SIZE to a cell number: everything asks
+ * Maze for a neighbour, a passage, or a cell by row and column.
+ *
+ * ROW_MAJOR is row * size + col. A step NORTH or SOUTH jumps size cells, which on
+ * a big maze is a cache miss in the walls, the seen bits and the parent links.
+ * TILED numbers 64*64 blocks of cells one after the other, the blocks in
+ * row-major order and row-major inside each block. Most steps stay inside a
+ * block of 4096 cells, a few pages of every array.
+ * Cell 0 is the top left corner and the last cell the bottom right in both.
+ */
+final class MazeLayout {
+    // The kinds of layout, also their number in a maze file.
+    static final int ROW_MAJOR = 0;
+    static final int TILED = 1;
+
+    // Side of a TILED block, and cells per block.
+    static final int TILE_SHIFT = 6;
+    private static final int TILE_MASK = (1 << TILE_SHIFT) - 1;
+    private static final int BLOCK_SHIFT = 2 * TILE_SHIFT;
+    private static final int BLOCK_MASK = (1 << BLOCK_SHIFT) - 1;
+    private static final int LAST_ROW = BLOCK_MASK - TILE_MASK;
+
+    final int kind;
+    private final int size;
+    private final long cells;
+
+    // TILED only: blocks in a row of blocks.
+    private final int across;
+
+    private MazeLayout(int kind, int size) {
+        if (size < 1)
+            throw new IllegalArgumentException("Bad maze size: " + size);
+        if (kind == TILED && (size & TILE_MASK) != 0)
+            throw new IllegalArgumentException("A tiled layout needs a size that is a multiple of " + (1 << TILE_SHIFT) + ", not " + size);
+        if (kind != ROW_MAJOR && kind != TILED)
+            throw new IllegalArgumentException("No layout number " + kind);
+        this.kind = kind;
+        this.size = size;
+        this.cells = (long)size * size;
+        this.across = size >>> TILE_SHIFT;
+    }
+
+    /**
+     * @param size - The row length of the maze.
+     * @return The row-major layout.
+     */
+    static MazeLayout row_major(int size) {
+        return new MazeLayout(ROW_MAJOR, size);
+    }
+
+    /**
+     * @param size - The row length of the maze, a multiple of 64.
+     * @return The layout in 64*64 blocks.
+     */
+    static MazeLayout tiled(int size) {
+        return new MazeLayout(TILED, size);
+    }
+
+    /**
+     * @param kind - ROW_MAJOR or TILED.
+     * @param size - The row length of the maze.
+     * @return That layout.
+     */
+    static MazeLayout of(int kind, int size) {
+        return new MazeLayout(kind, size);
+    }
+
+    /**
+     * Finds a layout by name.
+     * @param name - As returned by name().
+     * @param size - The row length of the maze.
+     * @return The layout.
+     */
+    static MazeLayout named(String name, int size) {
+        if (name.equalsIgnoreCase("row"))
+            return row_major(size);
+        if (name.equalsIgnoreCase("tiled"))
+            return tiled(size);
+        throw new IllegalArgumentException("No layout called " + name);
+    }
+
+    /**
+     * @return A short name, "row" or "tiled".
+     */
+    String name() {
+        return kind == TILED ? "tiled" : "row";
+    }
+
+    /**
+     * @return The row length of the maze.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param row - A row.
+     * @param col - A column.
+     * @return The number of the cell there.
+     */
+    long cell(int row, int col) {
+        if (kind == ROW_MAJOR)
+            return (long)row * size + col;
+        long block = (long)(row >>> TILE_SHIFT) * across + (col >>> TILE_SHIFT);
+        return block << BLOCK_SHIFT | (row & TILE_MASK) << TILE_SHIFT | col & TILE_MASK;
+    }
+
+    /**
+     * @param cell - A cell number.
+     * @return The row it is on.
+     */
+    int row(long cell) {
+        if (kind == ROW_MAJOR)
+            return (int)(cell / size);
+        return (int)((cell >>> BLOCK_SHIFT) / across) << TILE_SHIFT | (int)(cell >>> TILE_SHIFT) & TILE_MASK;
+    }
+
+    /**
+     * @param cell - A cell number.
+     * @return The column it is in.
+     */
+    int col(long cell) {
+        if (kind == ROW_MAJOR)
+            return (int)(cell % size);
+        return (int)((cell >>> BLOCK_SHIFT) % across) << TILE_SHIFT | (int)cell & TILE_MASK;
+    }
+
+    /**
+     * Finds the cell next to a given one.
+     * @param cell - The cell number.
+     * @param direction - 0 EAST, 1 SOUTH, 2 WEST, 3 NORTH.
+     * @return The neighboring cell, or -1 if we are at the edge.
+     */
+    int neighbor(int cell, int direction) {
+        switch (direction) {
+            case 0 : return east(cell);
+            case 1 : return south(cell);
+            case 2 : return west(cell);
+            default : return north(cell);
+        }
+    }
+
+    // One method per direction, small enough to inline into the solvers' loops.
+    // Inside a block TILED is a mask and an add; the division only comes at a block's edge.
+
+    int east(int cell) {
+        if (kind == ROW_MAJOR)
+            return (cell + 1) % size != 0 ? cell + 1 : -1;
+        return (cell & TILE_MASK) != TILE_MASK ? cell + 1 : block_east(cell);
+    }
+
+    int south(int cell) {
+        if (kind == ROW_MAJOR)
+            return cell + size < cells ? cell + size : -1;
+        return (cell & BLOCK_MASK) < LAST_ROW ? cell + TILE_MASK + 1 : block_south(cell);
+    }
+
+    int west(int cell) {
+        if (kind == ROW_MAJOR)
+            return cell % size != 0 ? cell - 1 : -1;
+        return (cell & TILE_MASK) != 0 ? cell - 1 : block_west(cell);
+    }
+
+    int north(int cell) {
+        if (kind == ROW_MAJOR)
+            return cell - size >= 0 ? cell - size : -1;
+        return (cell & BLOCK_MASK) > TILE_MASK ? cell - TILE_MASK - 1 : block_north(cell);
+    }
+
+    // Steps out of a block, into the next one or off the maze.
+
+    private int block_east(int cell) {
+        return (cell >>> BLOCK_SHIFT) % across != across - 1 ? cell + BLOCK_MASK + 1 - TILE_MASK : -1;
+    }
+
+    private int block_south(int cell) {
+        return (cell >>> BLOCK_SHIFT) < across * (across - 1) ? cell + (across << BLOCK_SHIFT) - LAST_ROW : -1;
+    }
+
+    private int block_west(int cell) {
+        return (cell >>> BLOCK_SHIFT) % across != 0 ? cell - BLOCK_MASK - 1 + TILE_MASK : -1;
+    }
+
+    private int block_north(int cell) {
+        return (cell >>> BLOCK_SHIFT) >= across ? cell - (across << BLOCK_SHIFT) + LAST_ROW : -1;
+    }
+}
@@ -0,0 +1,138 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+
+public class MazeLayoutTester
+{
+	/**
+	 * Walls compared by row and column, not by cell number.
+	 */
+	private static boolean same_walls(Maze a, Maze b)
+	{
+		int size = a.size();
+		for (int row = 0; row < size; row++)
+			for (int col = 0; col < size; col++)
+				for (int side = 0; side < 2; side++)
+					if (a.storage.wall(side, a.cell(row, col)) != b.storage.wall(side, b.cell(row, col)))
+						return false;
+		return true;
+	}
+
+	@Test
+	public void cells_and_coordinates()
+	{
+		for (MazeLayout layout : new MazeLayout[] { MazeLayout.row_major(7), MazeLayout.tiled(64), MazeLayout.tiled(192) }) {
+			int size = layout.size();
+			boolean[] taken = new boolean[size * size];
+			for (int row = 0; row < size; row++)
+				for (int col = 0; col < size; col++) {
+					long cell = layout.cell(row, col);
+					assertFalse(taken[(int)cell]);
+					taken[(int)cell] = true;
+					assertEquals(row, layout.row(cell));
+					assertEquals(col, layout.col(cell));
+				}
+			assertEquals(0, layout.cell(0, 0));
+			assertEquals((long)size * size - 1, layout.cell(size - 1, size - 1));
+		}
+	}
+
+	@Test
+	public void neighbors_by_coordinates()
+	{
+		int[] rows = { 0, 1, 0, -1 };
+		int[] cols = { 1, 0, -1, 0 };
+		for (MazeLayout layout : new MazeLayout[] { MazeLayout.row_major(9), MazeLayout.tiled(128), MazeLayout.tiled(192) }) {
+			int size = layout.size();
+			for (int cell = 0; cell < size * size; cell++)
+				for (int direction = 0; direction < 4; direction++) {
+					int row = layout.row(cell) + rows[direction];
+					int col = layout.col(cell) + cols[direction];
+					boolean inside = row >= 0 && row < size && col >= 0 && col < size;
+					assertEquals(inside ? layout.cell(row, col) : -1, layout.neighbor(cell, direction));
+				}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void tiled_needs_whole_blocks()
+	{
+		MazeLayout.tiled(100);
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void layout_must_fit_maze()
+	{
+		new Maze(128, new PackedMazeStorage(128 * 128), MazeLayout.tiled(64));
+	}
+
+	@Test
+	public void generators_in_tiled_layout()
+	{
+		for (MazeGenerator generator : MazeGenerator.ALL) {
+			Maze row = new Maze(128);
+			Maze tiled = new Maze(MazeLayout.tiled(128));
+			row.generate(generator, new GeneratorConfig(5));
+			tiled.generate(generator, new GeneratorConfig(5));
+			MazeGeneratorTester.assert_perfect(tiled);
+
+			// These only go by rows, columns and directions, so the seed gives the same maze.
+			if (generator != MazeGenerator.PRIM && generator != MazeGenerator.WILSON)
+				assertTrue(generator.name(), same_walls(row, tiled));
+		}
+
+		Maze row = new Maze(128);
+		Maze tiled = new Maze(MazeLayout.tiled(128));
+		row.randomise(new GeneratorConfig(6));
+		tiled.randomise(new GeneratorConfig(6));
+		assertTrue(same_walls(row, tiled));
+	}
+
+	@Test
+	public void solvers_in_tiled_layout()
+	{
+		Maze row = new Maze(192);
+		Maze tiled = new Maze(MazeLayout.tiled(192));
+		row.mazify(new GeneratorConfig(8));
+		tiled.mazify(new GeneratorConfig(8));
+		int last = 192 * 192 - 1;
+		int length = row.bfs(0, last, false).length;
+
+		for (MazeSolver solver : MazeSolver.ALL) {
+			SolveResult result = solver.solve(tiled, 0, last);
+			assertEquals(solver.name(), length, result.length);
+			MazeSolverTester.assert_walkable(tiled, result);
+		}
+		SolveResult indexed = new MazeIndex(tiled).solve(0, last);
+		assertEquals(length, indexed.length);
+		MazeSolverTester.assert_walkable(tiled, indexed);
+		SolveResult tiles = new HierarchicalGraph(tiled, 50, ForkJoinPool.commonPool()).solve(0, last);
+		assertEquals(length, tiles.length);
+		MazeSolverTester.assert_walkable(tiled, tiles);
+
+		// Between two inner cells, the same in both layouts.
+		int from = (int)tiled.cell(70, 3);
+		int to = (int)tiled.cell(5, 130);
+		assertEquals(row.bfs((int)row.cell(70, 3), (int)row.cell(5, 130), false).length, tiled.bfs(from, to, false).length);
+	}
+
+	@Test
+	public void same_picture()
+	{
+		Maze row = new Maze(64);
+		Maze tiled = new Maze(MazeLayout.tiled(64));
+		row.mazify(new GeneratorConfig(9));
+		tiled.mazify(new GeneratorConfig(9));
+		StringBuilder row_picture = new StringBuilder();
+		StringBuilder tiled_picture = new StringBuilder();
+		try {
+			new MazeRenderer(row).render(row.bfs(0, 4095, true).order(), " %c ", row_picture);
+			new MazeRenderer(tiled).render(tiled.bfs(0, 4095, true).order(), " %c ", tiled_picture);
+		} catch (Exception e) {
+			fail(e.toString());
+		}
+		assertEquals(row_picture.toString(), tiled_picture.toString());
+	}
+}
@@ -0,0 +1,41 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * MazeMetrics hears how each generation or solve run of a Maze went.
+ * The loops keep their counts in locals and report once, at the end of the
+ * run, so a listener costs one call per run and nothing per cell.
+ * The default, NONE, does nothing and says so: the loops then skip the
+ * clock as well, and once the empty call is inlined, the counts are dead
+ * code the JIT drops.
+ */
+interface MazeMetrics {
+    // Hears nothing.
+    MazeMetrics NONE = new MazeMetrics() {
+        @Override
+        public boolean enabled() {
+            return false;
+        }
+
+        public void run(String name, long cells, int peak, long knocked, long dead_ends, int path, long nanos) {
+        }
+    };
+
+    /**
+     * @return Whether anyone is listening. If not, runs are not timed.
+     */
+    default boolean enabled() {
+        return true;
+    }
+
+    /**
+     * One run of a generator or solver.
+     * @param name - What ran, e.g. "bfs" or "backtracker".
+     * @param cells - Cells visited.
+     * @param peak - Deepest the queue or stack got.
+     * @param knocked - Walls knocked down. 0 for solves.
+     * @param dead_ends - Times a stack was popped to back out of a dead end. 0 for queues.
+     * @param path - Cells on the path found, -1 if none. 0 for generation.
+     * @param nanos - Wall-clock time of the run.
+     */
+    void run(String name, long cells, int peak, long knocked, long dead_ends, int path, long nanos);
+}
@@ -0,0 +1,215 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * MazeRenderer draws a maze the same way Maze.print does, byte for byte,
+ * but streams it out row by row through one reusable buffer.
+ * The cell format is turned into a fixed-width template once, so there is
+ * no format parsing and no String per cell, and memory does not grow with the maze.
+ * Characters are written as Latin-1; anything past that comes out as '?'.
+ */
+class MazeRenderer {
+    /**
+     * Where the bytes go. One implementation per kind of output.
+     */
+    private interface Sink {
+        void write(byte[] bytes, int length) throws IOException;
+    }
+
+    /**
+     * A print format turned into fixed-width bytes. Only literal text, %%, and
+     * a single %c with an optional width (%3c, %-3c) are understood.
+     */
+    private static final class CellTemplate {
+        byte[] bytes;
+        int width;
+        // Where the filler character goes, -1 if the format has no %c.
+        int slot = -1;
+
+        CellTemplate(String format) {
+            StringBuilder text = new StringBuilder();
+            for (int i = 0; i < format.length(); i++) {
+                char c = format.charAt(i);
+                if (c != '%') {
+                    text.append(c);
+                    continue;
+                }
+
+                // Parse %[-][width](c|%).
+                int j = i + 1;
+                boolean left = j < format.length() && format.charAt(j) == '-';
+                if (left)
+                    j++;
+                int pad = 0;
+                while (j < format.length() && Character.isDigit(format.charAt(j)))
+                    pad = pad*10 + (format.charAt(j++) - '0');
+                if (j == i + 1 && j < format.length() && format.charAt(j) == '%')
+                    text.append('%');
+                else if (j < format.length() && format.charAt(j) == 'c' && slot == -1) {
+                    int spaces = Math.max(0, pad - 1);
+                    if (!left)
+                        for (int k = 0; k < spaces; k++)
+                            text.append(' ');
+                    slot = text.length();
+                    text.append(' ');
+                    if (left)
+                        for (int k = 0; k < spaces; k++)
+                            text.append(' ');
+                }
+                else
+                    throw new IllegalArgumentException("Unsupported cell format: " + format);
+                i = j;
+            }
+
+            width = text.length();
+            bytes = new byte[width];
+            for (int i = 0; i < width; i++)
+                bytes[i] = latin1(text.charAt(i));
+        }
+    }
+
+    // Largest buffer we keep, no matter how big the maze.
+    private static final int MAX_BUFFER = 1 << 16;
+
+    private static final byte[] TOP_OPEN = "+   ".getBytes();
+    private static final byte[] TOP_WALL = "+---".getBytes();
+    private static final byte[] FLOOR_OPEN = "   +".getBytes();
+    private static final byte[] FLOOR_WALL = "---+".getBytes();
+
+    private final Maze maze;
+    private byte[] buffer;
+    private int position;
+
+    /**
+     * @param maze - The maze to draw.
+     */
+    MazeRenderer(Maze maze) {
+        this.maze = maze;
+        // Roughly the size of the whole picture for small mazes, capped for big ones.
+        long picture = (2L*maze.size() + 1) * (4L*maze.size() + 2);
+        buffer = new byte[(int)Math.max(256, Math.min(MAX_BUFFER, picture))];
+    }
+
+    /**
+     * Draws the maze to a stream.
+     * @param filler - What to put in the centre of each cell, or null for nothing.
+     * @param format - The cell format, as print takes it. e.g. " %c "
+     * @param out - Where to write.
+     */
+    void render(char[] filler, String format, OutputStream out) throws IOException {
+        render(filler, format, (bytes, length) -> out.write(bytes, 0, length));
+    }
+
+    /**
+     * Draws the maze to a channel.
+     * @param filler - What to put in the centre of each cell, or null for nothing.
+     * @param format - The cell format, as print takes it. e.g. " %c "
+     * @param out - Where to write.
+     */
+    void render(char[] filler, String format, WritableByteChannel out) throws IOException {
+        render(filler, format, (bytes, length) -> {
+            ByteBuffer wrapped = ByteBuffer.wrap(bytes, 0, length);
+            while (wrapped.hasRemaining())
+                out.write(wrapped);
+        });
+    }
+
+    /**
+     * Draws the maze to anything that takes characters.
+     * @param filler - What to put in the centre of each cell, or null for nothing.
+     * @param format - The cell format, as print takes it. e.g. " %c "
+     * @param out - Where to write.
+     */
+    void render(char[] filler, String format, Appendable out) throws IOException {
+        render(filler, format, (bytes, length) -> {
+            for (int i = 0; i < length; i++)
+                out.append((char)(bytes[i] & 0xFF));
+        });
+    }
+
+    /**
+     * The drawing itself. Same walk as print: top edge, then each row followed by its floor, then bottom edge.
+     */
+    private void render(char[] filler, String format, Sink sink) throws IOException {
+        int size = maze.size();
+        MazeStorage storage = maze.storage;
+
+        // The cell template and where the filler goes in it (-1 if nowhere).
+        CellTemplate template = new CellTemplate(format);
+        byte[] cell = template.bytes;
+        int width = template.width;
+        int slot = template.slot;
+        if (buffer.length < width + 2)
+            buffer = new byte[width + 2];
+        position = 0;
+
+        // Top edge of the maze.
+        put(TOP_OPEN, sink);
+        for (int col = 1; col < size; col++)
+            put(TOP_WALL, sink);
+        put((byte)'+', sink);
+        put((byte)'\n', sink);
+
+        // Middle of the maze.
+        for (int row = 0; row < size; row++) {
+            // Do a row.
+            put((byte)'|', sink);
+            for (int col = 0; col < size; col++) {
+                if (position + width + 2 > buffer.length)
+                    flush(sink);
+                long at = maze.cell(row, col);
+                System.arraycopy(cell, 0, buffer, position, width);
+                if (slot >= 0)
+                    buffer[position + slot] = filler == null ? (byte)' ' : latin1(filler[(int)at]);
+                position += width;
+                if (col < size - 1)
+                    buffer[position++] = storage.wall(MazeStorage.EAST, at) == MazeStorage.CONNECTED ? (byte)' ' : (byte)'|';
+            }
+            put((byte)'|', sink);
+            put((byte)'\n', sink);
+
+            if (row == size - 1)
+                break;
+
+            // Edge below the row we just did.
+            put((byte)'+', sink);
+            for (int col = 0; col < size; col++)
+                put(storage.wall(MazeStorage.SOUTH, maze.cell(row, col)) == MazeStorage.CONNECTED ? FLOOR_OPEN : FLOOR_WALL, sink);
+            put((byte)'\n', sink);
+        }
+
+        // Bottom edge.
+        for (int col = 0; col < size - 1; col++)
+            put(TOP_WALL, sink);
+        put(TOP_OPEN, sink);
+        put((byte)'+', sink);
+        put((byte)'\n', sink);
+        flush(sink);
+    }
+
+    private static byte latin1(char c) {
+        return c > 0xFF ? (byte)'?' : (byte)c;
+    }
+
+    private void put(byte b, Sink sink) throws IOException {
+        if (position == buffer.length)
+            flush(sink);
+        buffer[position++] = b;
+    }
+
+    private void put(byte[] bytes, Sink sink) throws IOException {
+        if (position + bytes.length > buffer.length)
+            flush(sink);
+        System.arraycopy(bytes, 0, buffer, position, bytes.length);
+        position += bytes.length;
+    }
+
+    private void flush(Sink sink) throws IOException {
+        if (position > 0)
+            sink.write(buffer, position);
+        position = 0;
+    }
+}
@@ -0,0 +1,85 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import org.junit.Test;
+
+
+public class MazeRendererTester
+{
+	/**
+	 * The picture exactly as print used to build it, one String.format per cell.
+	 */
+	private static String reference(Maze maze, char[] filler, String format)
+	{
+		int size = maze.size();
+		StringBuilder output = new StringBuilder();
+		output.append("+   ");
+		for (int col = 1; col < size; col++)
+			output.append("+---");
+		output.append("+\n");
+		for (int row = 0; row < size; row++) {
+			output.append("|");
+			for (int col = 0; col < size - 1; col++) {
+				output.append(String.format(format, filler[row * size + col]));
+				output.append(maze.storage.wall(MazeStorage.EAST, row * size + col) == MazeStorage.CONNECTED ? " " : "|");
+			}
+			output.append(String.format(format, filler[(row + 1) * size - 1]));
+			output.append("|\n");
+			if (row == size - 1)
+				break;
+			output.append("+");
+			for (int col = 0; col < size; col++)
+				output.append(maze.storage.wall(MazeStorage.SOUTH, row * size + col) == MazeStorage.CONNECTED ? "   +" : "---+");
+			output.append("\n");
+		}
+		for (int col = 0; col < size - 1; col++)
+			output.append("+---");
+		output.append("+   +\n");
+		return output.toString();
+	}
+
+	@Test
+	public void same_as_format()
+	{
+		Maze maze = new Maze(23);
+		maze.mazify();
+		char[] order = maze.bfs(0, 23 * 23 - 1, true).order().clone();
+		for (String format : new String[] { " %c ", "   ", "%3c", "%-3c", "[%c]%%" }) {
+			StringBuilder out = new StringBuilder();
+			try {
+				new MazeRenderer(maze).render(order, format, out);
+			} catch (Exception e) {
+				fail(e.toString());
+			}
+			assertEquals(reference(maze, order, format), out.toString());
+		}
+	}
+
+	@Test
+	public void all_sinks_agree() throws Exception
+	{
+		// Big enough that the buffer gets flushed many times.
+		Maze maze = new Maze(300);
+		maze.mazify();
+		char[] overlay = maze.bfs(0, 300 * 300 - 1, false).overlay(300 * 300);
+		MazeRenderer renderer = new MazeRenderer(maze);
+
+		ByteArrayOutputStream stream = new ByteArrayOutputStream();
+		renderer.render(overlay, " %c ", stream);
+		ByteArrayOutputStream channel = new ByteArrayOutputStream();
+		renderer.render(overlay, " %c ", Channels.newChannel(channel));
+		StringBuilder chars = new StringBuilder();
+		renderer.render(overlay, " %c ", chars);
+
+		assertArrayEquals(stream.toByteArray(), channel.toByteArray());
+		assertEquals(new String(stream.toByteArray(), "ISO-8859-1"), chars.toString());
+		assertEquals(reference(maze, overlay, " %c "), chars.toString());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void unsupported_format() throws Exception
+	{
+		new MazeRenderer(new Maze(2)).render(null, "%d", new StringBuilder());
+	}
+}
@@ -0,0 +1,23 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * MazeRunsMXBean is what MetricsRecorder shows through JMX for each generator
+ * or solver. JMX only takes public interfaces, which is why this one is.
+ */
+public interface MazeRunsMXBean {
+    long getRuns();
+
+    long getCellsVisited();
+
+    int getPeakDepth();
+
+    long getWallsKnocked();
+
+    long getDeadEnds();
+
+    long getPathCells();
+
+    long getNanos();
+
+    double getNanosPerCell();
+}
@@ -1,8 +1,8 @@
 package sjsu.nikolov.cs146.project3;
-import java.util.Map;
-import java.util.Random;
-import java.util.HashMap;
-import java.util.Scanner;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.random.RandomGenerator;
 
 /**
  * The Maze class implements square grids representing mazes.
@@ -13,182 +13,320 @@ import java.util.Scanner;
  *
  */
 class Maze {
-    /**
-     * Solution is a helper class, resembling a tree, but in the wrong direction.
-     * Nodes know their parents, but not their children. All nodes are in a HashMap,
-     * so they can be retrieved fast. The goal here is to add nodes to this structure
-     * as we solve a maze and quickly find the correct path of the solution.
-     */
-	class Solution {
-        /**
-         * Node class represents a node in the custom tree.
-         * It contains only a pointer to its parent and a number for the cell it represents.
-         */
-		class Node {
-            // cell stands for the cell number in the maze grid.
-			int cell;
-			Node parent;
-			
-            /**
-             * Node constructor creates a node for the tree.
-             * @param cell - The number of the cell we are representing.
-             * @param parent - The node for the parent of this cell.
-             */
-			Node(int cell, Node parent) {
-				this.cell = cell;
-                this.parent = parent;
-			}
-		}
-		
-        // This map contains tree nodes with cell number as a key.
-		Map<Integer, Node> paths = new HashMap<Integer, Node>();
-		
-        /**
-         * Default constructor adds starting node.
-         */
-		Solution() {
-			Node first_node = new Node(0, null);
-			paths.put(0, first_node);
-		}
-		
-        /**
-         * Adds a node to the tree given a cell and it's parent.
-         * @param parent - The previous cell we have traversed.
-         * @param child - The current cell we are adding.
-         */
-		void add(int parent, int child) {
-			Node parent_node = paths.get(parent);
-			if (parent_node != null) { 
-				Node new_node = new Node(child, parent_node);
-				paths.put(child, new_node);
-			}
-		}
-		
-        /**
-         * Once we have solved the maze, we invoke this method which 
-         * locates the node representing the maze exit and it bubbles
-         * up the tree through the parents, revealing the correct path.
-         * @returns An array of size of the whole maze, containing '#' 
-         * in cells where the path is happening.
-         */
-		char[] find_solution() {
-			char[] result = new char[FULL_SIZE];
-			
-            // Put spaces everywhere, but the first and last position.
-			result[0] = '#';
-			for (int i = 1; i < FULL_SIZE - 1; i++) 
-				result[i] = ' ';
-			result[FULL_SIZE - 1] = '#';
-			
-            // Place '#' on the path.
-			Node current_node = paths.get(FULL_SIZE - 1);
-			while (current_node.parent.cell != 0) {
-				result[current_node.cell] = '#';
-				current_node = current_node.parent;
-			}
-			result[current_node.cell] = '#';
-			
-			return result;
-		}
-	}
-
 	// Each cell has only two walls and EAST and SOUTH represent the right and bottom walls, respectively.
-    private static final int EAST = 0;
-    private static final int SOUTH = 1;
+    private static final int EAST = MazeStorage.EAST;
+    private static final int SOUTH = MazeStorage.SOUTH;
     
     // Each cell's VISITED state can be either VIRGIN, TOUCHED, or EXPLORED.
-    private static final int VISITED = 2;
     private static final int VIRGIN = 0;
     private static final int TOUCHED = 1;
     private static final int EXPLORED = 2;
-    private static final int CONNECTED = 1;
+    private static final int CONNECTED = MazeStorage.CONNECTED;
+
+    // The largest row length the generators and solvers take: the last whose
+    // square fits in the int arrays they keep a slot per cell in.
+    static final int MAX_SOLVABLE_SIZE = 46340;
     
     // SIZE holds the row length of the maze, FULL_LENGTH holds the total number of cells.
+    // FULL_SIZE is a long so we can go past 2^31 cells.
     private final int SIZE;
-    private final int FULL_SIZE;
+    private final long FULL_SIZE;
     
     // Where the maze is stored.
-    int[][] maze;
+    final MazeStorage storage;
+
+    // Which cell number each row and column gets.
+    final MazeLayout layout;
+
+    // Hears how each mazify, bfs and dfs run went.
+    private MazeMetrics metrics = MazeMetrics.NONE;
+
+    // XOR of wall_key over the open walls. Worked out the first time wall_hash is
+    // asked for, then kept up by set_wall; open_wall_atomic drops it.
+    // The hash is always written before hashed is set, and both are volatile, so a
+    // thread that sees hashed also sees the hash that goes with it.
+    private volatile long wall_hash;
+    private volatile boolean hashed;
 
     /**
      * Constructor creating a blank maze of dimensions size*size
      * @param size - The row length of the maze.
      */
     Maze(int size) {
-        SIZE = size;
-        FULL_SIZE = SIZE*SIZE;
-        maze = new int[4][FULL_SIZE];
+        this(size, new PackedMazeStorage((long)size*size));
     }
     
+    /**
+     * Constructor creating a blank maze of dimensions size*size, cells numbered by a layout.
+     * @param layout - Which cell number each row and column gets.
+     */
+    Maze(MazeLayout layout) {
+        this(layout.size(), new PackedMazeStorage((long)layout.size()*layout.size()), layout);
+    }
+
     /**
      * Constructor being fed a maze manually.
      * @param maze - The maze we want in this object.
      */
     Maze(int[][] maze) {
-    	this.maze = maze;
-    	SIZE = (int)Math.sqrt(maze[0].length);
-    	FULL_SIZE = maze[0].length;
-    	
+    	this((int)Math.sqrt(maze[0].length), new ArrayMazeStorage(maze));
+    }
+
+    /**
+     * Constructor putting a maze on top of an existing storage.
+     * @param size - The row length of the maze.
+     * @param storage - Where the cells live. Must hold exactly size*size cells.
+     */
+    Maze(int size, MazeStorage storage) {
+        this(size, storage, MazeLayout.row_major(size));
+    }
+
+    /**
+     * Constructor putting a maze on top of an existing storage, cells numbered by a layout.
+     * @param size - The row length of the maze.
+     * @param storage - Where the cells live. Must hold exactly size*size cells.
+     * @param layout - Which cell number each row and column gets. Must be for this size.
+     */
+    Maze(int size, MazeStorage storage, MazeLayout layout) {
+        if (size < 1 || storage.cells() != (long)size*size)
+            throw new IllegalArgumentException("Storage of " + storage.cells() + " cells does not fit a maze of size " + size);
+        if (layout.size() != size)
+            throw new IllegalArgumentException("Layout for size " + layout.size() + " does not fit a maze of size " + size);
+        SIZE = size;
+        FULL_SIZE = (long)size*size;
+        this.storage = storage;
+        this.layout = layout;
+    }
+
+    /**
+     * @return The row length of the maze.
+     */
+    int size() {
+        return SIZE;
+    }
+
+    /**
+     * @return The total number of cells.
+     */
+    long cells() {
+        return FULL_SIZE;
+    }
+
+    /**
+     * @param row - A row.
+     * @param col - A column.
+     * @return The number of the cell there.
+     */
+    long cell(int row, int col) {
+        return layout.cell(row, col);
+    }
+
+    /**
+     * @param cell - A cell number.
+     * @return The row it is on.
+     */
+    int row(long cell) {
+        return layout.row(cell);
+    }
+
+    /**
+     * @param cell - A cell number.
+     * @return The column it is in.
+     */
+    int col(long cell) {
+        return layout.col(cell);
+    }
+
+    /**
+     * @param metrics - Hears how each mazify, bfs and dfs run goes from now on. NONE to stop.
+     */
+    void set_metrics(MazeMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * The generator and the solvers keep int arrays with one slot per cell,
+     * so they are bound by the largest Java array. The storage is not.
+     * @return FULL_SIZE as an int.
+     */
+    int int_cells() {
+        if (FULL_SIZE > Integer.MAX_VALUE - 8)
+            throw new IllegalStateException("Maze of " + FULL_SIZE + " cells is too large to generate or solve in memory:"
+                    + " the algorithms keep int arrays of a slot per cell, so they stop at " + (Integer.MAX_VALUE - 8) + " cells (size " + MAX_SOLVABLE_SIZE + ").");
+        return (int)FULL_SIZE;
+    }
+
+    /**
+     * Writes one wall. Every wall change after construction goes through here or open_wall_atomic.
+     * @param side - EAST or SOUTH.
+     * @param cell - The cell owning the wall.
+     * @param value - CONNECTED to knock it down, 0 to put it up.
+     */
+    void set_wall(int side, long cell, int value) {
+        if (hashed && storage.wall(side, cell) != (value == CONNECTED ? CONNECTED : 0))
+            wall_hash ^= wall_key(side, cell);
+        storage.set_wall(side, cell, value);
+    }
+
+    /**
+     * Knocks down one wall while other threads knock down walls of other cells.
+     * @param side - EAST or SOUTH.
+     * @param cell - The cell owning the wall.
+     */
+    void open_wall_atomic(int side, long cell) {
+        // Many threads at once cannot keep one hash, so it is worked out again when next asked for.
+        hashed = false;
+        storage.open_wall_atomic(side, cell);
+    }
+
+    /**
+     * A 64-bit hash of the walls, the same for any two mazes of the same size
+     * and layout with the same walls. Kept up as set_wall changes them, so after
+     * the first call it costs nothing; writes made straight to the storage are not seen.
+     * Any number of threads may ask at once, as long as none of them is changing walls.
+     * @return The hash.
+     */
+    long wall_hash() {
+        if (!hashed) {
+            long hash = 0;
+            for (long cell = 0; cell < FULL_SIZE; cell++) {
+                if (storage.wall(EAST, cell) == CONNECTED)
+                    hash ^= wall_key(EAST, cell);
+                if (storage.wall(SOUTH, cell) == CONNECTED)
+                    hash ^= wall_key(SOUTH, cell);
+            }
+            wall_hash = hash;
+            hashed = true;
+        }
+        return wall_hash;
+    }
+
+    /**
+     * @return A well-mixed number standing for one wall (the SplitMix64 finaliser).
+     */
+    private static long wall_key(int side, long cell) {
+        long z = ((cell << 1 | side) + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Knocks down the wall between two neighbouring cells.
+     * @param current - One cell.
+     * @param destination - A cell next to it.
+     */
+    void knock_wall(int current, int destination) {
+        // Which way is it? NORTH if none of the others.
+        int direction = 0;
+        while (direction < 3 && neighbor(current, direction) != destination)
+            direction++;
+
+        // EAST and SOUTH walls are ours, WEST and NORTH belong to the destination.
+        set_wall(direction & 1, direction < 2 ? current : destination, CONNECTED);
+    }
+
+    /**
+     * Generates a perfect maze with any generator, reporting how it went.
+     * The maze must still have all of its walls up.
+     * @param generator - The algorithm to use.
+     * @param config - Where the randomness comes from.
+     * @return Time taken and memory used.
+     */
+    MazeGenerator.Report generate(MazeGenerator generator, GeneratorConfig config) {
+        RandomGenerator rand = config.random();
+        long start = System.nanoTime();
+        generator.generate(this, rand);
+        long nanos = System.nanoTime() - start;
+        return new MazeGenerator.Report(generator.name(), FULL_SIZE, nanos, generator.footprint(SIZE));
     }
 
     /**
      * Randomly knock walls around. It does not follow any rules of perfect maze.
      */
     void randomise() {
-        Random rand = new Random(System.nanoTime());
-        for (int col = 0; col < FULL_SIZE; col++) {
-            // Bound on EAST
-            if ((col + 1)%SIZE != 0)
-                maze[EAST][col] = rand.nextInt(2);
-            // Bound on SOUTH
-            if (col < FULL_SIZE - SIZE)
-                maze[SOUTH][col] = rand.nextInt(2);
-        }
+        randomise(GeneratorConfig.unseeded());
+    }
+
+    /**
+     * Randomly knock walls around, reproducibly.
+     * @param config - Where the randomness comes from.
+     */
+    void randomise(GeneratorConfig config) {
+        // Row by row whatever the layout, so a seed gives the same maze in any of them.
+        RandomGenerator rand = config.random();
+        for (int row = 0; row < SIZE; row++)
+            for (int col = 0; col < SIZE; col++) {
+                long cell = cell(row, col);
+                // Bound on EAST
+                if (col < SIZE - 1)
+                    set_wall(EAST, cell, rand.nextInt(2));
+                // Bound on SOUTH
+                if (row < SIZE - 1)
+                    set_wall(SOUTH, cell, rand.nextInt(2));
+            }
     }
 
     /**
      * Generates a perfect maze using a depth-first algorithm.
      */
     void mazify() {
+        mazify(GeneratorConfig.unseeded());
+    }
+
+    /**
+     * Generates a perfect maze using a depth-first algorithm.
+     * The same config always gives the same maze.
+     * @param config - Where the randomness comes from.
+     */
+    void mazify(GeneratorConfig config) {
+        backtrack(config.random());
+    }
+
+    /**
+     * The depth-first generator itself, also known as the recursive backtracker.
+     * @param rand - Where the randomness comes from.
+     */
+    void backtrack(RandomGenerator rand) {
+        MazeMetrics metrics = this.metrics;
+        long began = metrics.enabled() ? System.nanoTime() : 0;
+
         // Clear any visited data.
-        maze[VISITED] = new int[FULL_SIZE];
+        storage.clear_visited();
 
         // Create a stack and initialize number of visited cells, starting cell, and stack pointer.
-        // The stack is the part that makes it depth-first method.
-        int[] cell_stack = new int[FULL_SIZE];
+        // The stack is the part that makes it depth-first method. It holds the path we came by.
+        int[] cell_stack = new int[int_cells()];
         int stack_pointer = 1;
         int visited_cells = 1;
         int current_cell = 0;
-        maze[VISITED][current_cell] = EXPLORED;
+        storage.set_visited(current_cell, EXPLORED);
+
+        // For the metrics: deepest the stack got, and times we backed out of a dead end.
+        int peak = 1;
+        long dead_ends = 0;
 
         while (visited_cells < FULL_SIZE) {
             // Pick a destination where to go.
-            int destination = pick_destination(current_cell);
+            int destination = pick_destination(current_cell, rand);
 
-            // If no good destination, pop.
-            if (destination == -1) 
-                current_cell = cell_stack[stack_pointer--];
+            // If no good destination, pop and go back to the cell before.
+            if (destination == -1) {
+                current_cell = cell_stack[--stack_pointer - 1];
+                dead_ends++;
+            }
 
             // Call the builders, knock the wall.
             else {
-                if (destination < current_cell) {
-                    if (current_cell - destination == 1)
-                        maze[EAST][destination] = CONNECTED; // Cell to the WEST.
-                    else 
-                        maze[SOUTH][destination] = CONNECTED; // Cell to the NORTH.
-                }
-                else {
-                    if (destination - current_cell == 1)
-                        maze[EAST][current_cell] = CONNECTED; // Cell to the EAST.
-                    else 
-                        maze[SOUTH][current_cell] = CONNECTED; // Cell to the SOUTH.
-                }
+                knock_wall(current_cell, destination);
                 
                 // Move to that cell, mark as explored, push on the stack, increment visited cells.
                 current_cell = destination;
-                maze[VISITED][destination] = EXPLORED;
+                storage.set_visited(destination, EXPLORED);
                 cell_stack[stack_pointer++] = current_cell;
                 visited_cells++;
+                if (stack_pointer > peak)
+                    peak = stack_pointer;
             }
 
             // Uncomment the following four lines if you want to see the generation in action.
@@ -197,42 +335,50 @@ class Maze {
 //                Thread.sleep(100);
 //            } catch (Exception ignored) {}
         }
+
+        // Every cell but the first was reached by knocking one wall.
+        if (metrics.enabled())
+            metrics.run("backtracker", visited_cells, peak, visited_cells - 1, dead_ends, 0, System.nanoTime() - began);
     }
 
     /**
      * From a given cell, pick a destination where to go.
      * @param current - The current cell (position in the maze array)
+     * @param rand - Where the randomness comes from.
      * @return The cell number of where we should go.
      */
-    int pick_destination(int current) {
-        // Walls will be an array, holding four 1s or 0s, depending on the existence of those walls.
-        // After that, for each existing wall, we check if we have a path.
-        // If a path exists, we mark it as 0 (no wall).
-        // Note that this is the reverse of how the original array is encoded.
-        int[] walls = get_walls(current);
-        if ((walls[0] + walls[1] + walls[2] + walls[3]) < 1)
+    int pick_destination(int current, RandomGenerator rand) {
+        // Walls will hold a bit for each direction we can go in, EAST being bit 0.
+        // Pick one of them, no retrying.
+        int direction = MazeGenerator.random_direction(wall_mask(current), rand);
+        if (direction == -1)
             return -1;
+        return neighbor(current, direction);
+    }
 
-        // Randomly pick one of four destinations.
-        Random rand = new Random(System.nanoTime());
-        while (true) 
-            switch (rand.nextInt(4)) {
-                // EAST
-                case 0 : if (walls[0] == 1) 
-                            return current + 1;
-
-                // SOUTH
-                case 1 : if (walls[1] == 1) 
-                            return current + SIZE;
-
-                // WEST
-                case 2 : if (walls[2] == 1) 
-                            return current - 1;
-
-                // NORTH
-                case 3 : if (walls[3] == 1) 
-                            return current - SIZE;
-            }
+    /**
+     * Finds the cell next to a given one.
+     * @param cell - The cell number.
+     * @param direction - 0 EAST, 1 SOUTH, 2 WEST, 3 NORTH, the order of get_walls.
+     * @return The neighboring cell, or -1 if we are at the edge.
+     */
+    int neighbor(int cell, int direction) {
+        return layout.neighbor(cell, direction);
+    }
+
+    /**
+     * Like neighbor, but only through an open wall.
+     * @param cell - The cell number.
+     * @param direction - 0 EAST, 1 SOUTH, 2 WEST, 3 NORTH.
+     * @return The cell we can step to, or -1 if there is a wall or the edge.
+     */
+    int passage(int cell, int direction) {
+        int next = layout.neighbor(cell, direction);
+        if (next == -1)
+            return -1;
+
+        // EAST and SOUTH walls are ours, WEST and NORTH belong to the neighbour.
+        return storage.wall(direction & 1, direction < 2 ? cell : next) == CONNECTED ? next : -1;
     }
 
     /**
@@ -243,27 +389,28 @@ class Maze {
      * @return An array of four containing the "usability" of each surrounding wall.
      */
     int[] get_walls(int current) {
+        int walls = wall_mask(current);
         int[] result = new int[4];
+        for (int i = 0; i < 4; i++)
+            result[i] = (walls >>> i) & 1;
+        return result;
+    }
 
-        // EAST.
-        if ((current + 1) % SIZE != 0)
-            if (maze[VISITED][current + 1] == VIRGIN)
-                result[0] = 1;
-
-        // SOUTH.
-        if (current + SIZE < FULL_SIZE)
-            if (maze[VISITED][current + SIZE] == VIRGIN)
-                result[1] = 1;
-
-        // WEST.
-        if (current % SIZE != 0)
-            if (maze[VISITED][current - 1] == VIRGIN)
-                result[2] = 1;
-
-        // NORTH.
-        if (current - SIZE >= 0)
-            if (maze[VISITED][current - SIZE] == VIRGIN)
-                result[3] = 1;
+    /**
+     * Same as get_walls, packed into an int: bit 0 EAST, bit 1 SOUTH, bit 2 WEST, bit 3 NORTH.
+     * @param current - The current cell (position in the maze array)
+     * @return The "usability" of each surrounding wall as bits.
+     */
+    int wall_mask(int current) {
+        int result = 0;
+
+        // EAST, SOUTH, WEST, NORTH.
+        for (int direction = 0; direction < 4; direction++) {
+            int next = neighbor(current, direction);
+            if (next != -1)
+                if (storage.visited(next) == VIRGIN)
+                    result |= 1 << direction;
+        }
 
         return result;
     }
@@ -273,80 +420,101 @@ class Maze {
      * @returns The length of the solution path.
      */
     int bfs_solve() {
-    	Solution solution = new Solution();
-    	
-    	// Initialise a queue. Head and tail for it.
-        int[] queue = new int[FULL_SIZE];
+        SolveResult result = bfs(0, int_cells() - 1, true);
+        if (!result.solved()) {
+            System.out.println("Queue empty. Couldn't find a solution.");
+            return -1;
+        }
+
+        // Print the resulting maze and solution.
+        print(result.order(), " %c ");
+        print(result);
+
+        return result.visited;
+    }
+
+    /**
+     * Headless breadth-first solve. Nothing is printed and, apart from the result
+     * itself, nothing is allocated: the search runs in the thread's workspace.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @param record_order - Whether to keep the traversal order for print.
+     * @return The result. Its path has to be read before this thread solves again.
+     */
+    SolveResult bfs(int start, int end, boolean record_order) {
+        long began = metrics.enabled() ? System.nanoTime() : 0;
+        SolverWorkspace work = SolverWorkspace.current().prepare(int_cells());
+
+    	// The queue, the parent links and the seen bits. Head and tail for the queue.
+        int[] queue = work.cells;
+        int[] parent = work.parent;
         int head = 1;
         int tail = 1;
         
         // Initialise current cell, nodes visited, and destination.
-        int current = 0;
+        int current = start;
         int total_visited = 0;
+        work.mark(current);
 
-        // Initialise an array that will hold the traversal order.
-        // It gets passed to the print method.
-        char[] order = new char[FULL_SIZE];
-        for (int i = 0; i < FULL_SIZE; i++)
-            order[i] = ' ';
-        
-        // Clear any visited data.
-        maze[VISITED] = new int[FULL_SIZE];
+        // Initialise an array that will hold the traversal order, if we want one.
+        char[] order = record_order ? work.order() : null;
+
+        // For the metrics: longest the queue got.
+        int peak = 0;
 
         // At each cell, we enqueue its neighbors.
         // Then we dequeue and repeat until we reach the end.
-        while (current != (FULL_SIZE - 1)) {
+        while (current != end) {
             // EAST.
-            int destination = current + 1;
-            if (destination % SIZE != 0)
-                if (maze[VISITED][destination] == VIRGIN) 
-                    if (maze[EAST][current] == CONNECTED) {
-                        maze[VISITED][destination] = TOUCHED;
+            int destination = layout.east(current);
+            if (destination != -1)
+                if (!work.seen(destination)) 
+                    if (storage.wall(EAST, current) == CONNECTED) {
+                        work.mark(destination);
                         queue[head++] = destination;
-                        solution.add(current, destination);
+                        parent[destination] = current;
                     }
 
             // SOUTH.
-            destination = current + SIZE;
-            if (destination < FULL_SIZE)
-                if (maze[VISITED][destination] == VIRGIN) 
-                    if (maze[SOUTH][current] == CONNECTED) {
-                        maze[VISITED][destination] = TOUCHED;
+            destination = layout.south(current);
+            if (destination != -1)
+                if (!work.seen(destination)) 
+                    if (storage.wall(SOUTH, current) == CONNECTED) {
+                        work.mark(destination);
                         queue[head++] = destination;
-                        solution.add(current, destination);
+                        parent[destination] = current;
                     }
 
             // WEST.
-            destination = current - 1;
-            if (current % SIZE != 0)
-                if (maze[VISITED][destination] == VIRGIN) 
-                    if (maze[EAST][destination] == CONNECTED) {
-                        maze[VISITED][destination] = TOUCHED;
+            destination = layout.west(current);
+            if (destination != -1)
+                if (!work.seen(destination)) 
+                    if (storage.wall(EAST, destination) == CONNECTED) {
+                        work.mark(destination);
                         queue[head++] = destination;
-                        solution.add(current, destination);
+                        parent[destination] = current;
                     }
 
             // NORTH.
-            destination = current - SIZE;
-            if (destination >= 0)
-                if (maze[VISITED][destination] == VIRGIN) 
-                    if (maze[SOUTH][destination] == CONNECTED) {
-                        maze[VISITED][destination] = TOUCHED;
+            destination = layout.north(current);
+            if (destination != -1)
+                if (!work.seen(destination)) 
+                    if (storage.wall(SOUTH, destination) == CONNECTED) {
+                        work.mark(destination);
                         queue[head++] = destination;
-                        solution.add(current, destination);
+                        parent[destination] = current;
                     }
 
             // Couldn't reach the end.
-            if (tail - head == 0) {
-                System.out.println("Queue empty. Couldn't find a solution.");
-                return -1;
-            }
-
-            // Mark step number in the order traversal array, increase visited,
-            // mark current as explored, and dequeue.
-            order[current] = (char)(total_visited % 10 + '0');
+            if (tail - head == 0)
+                return report("bfs", began, new SolveResult(start, end, -1, head, work, order), peak, 0);
+            if (head - tail > peak)
+                peak = head - tail;
+
+            // Mark step number in the order traversal array, increase visited, and dequeue.
+            if (order != null)
+                order[current] = (char)(total_visited % 10 + '0');
             total_visited++;
-            maze[VISITED][current] = EXPLORED;
             current = queue[tail++];
             
             // Uncomment the following four lines if you want to see the maze being solved.
@@ -357,13 +525,40 @@ class Maze {
         }
         
         // Add the final move.
-        order[current] = (char)(total_visited % 10 + '0');
-
-        // Print the resulting maze and solution.
-        print(order, " %c ");
-        print(solution.find_solution(), " %c ");
+        if (order != null)
+            order[current] = (char)(total_visited % 10 + '0');
         
-        return head;
+        return report("bfs", began, new SolveResult(start, end, path_length(parent, start, end), head, work, order), peak, 0);
+    }
+
+    /**
+     * Tells the metrics how a solve went.
+     * @param solver - Its name.
+     * @param began - When it started, if the metrics are on.
+     * @param result - What it found.
+     * @param peak - Longest the queue or stack got.
+     * @param dead_ends - Cells backed out of.
+     * @return The result.
+     */
+    private SolveResult report(String solver, long began, SolveResult result, int peak, long dead_ends) {
+        MazeMetrics metrics = this.metrics;
+        if (metrics.enabled())
+            metrics.run(solver, result.visited, peak, 0, dead_ends, result.length, System.nanoTime() - began);
+        return result;
+    }
+
+    /**
+     * Counts the cells on a path by following parent links back from the end.
+     * @param parent - Parent links left by a solve.
+     * @param start - The first cell of the path.
+     * @param end - The last cell of the path.
+     * @return The number of cells on the path, both ends included.
+     */
+    private static int path_length(int[] parent, int start, int end) {
+        int length = 1;
+        for (int current = end; current != start; current = parent[current])
+            length++;
+        return length;
     }
 
     /**
@@ -371,15 +566,23 @@ class Maze {
      * rendering the maze unsolvable. Good for tests.
      */
     void render_unsolvable() {
-        maze[EAST][FULL_SIZE - 2] = 0;
-        maze[SOUTH][FULL_SIZE - SIZE - 1] = 0;
+        set_wall(EAST, cell(SIZE - 1, SIZE - 2), 0);
+        set_wall(SOUTH, cell(SIZE - 2, SIZE - 1), 0);
     }
     
+    /**
+     * Prints the maze with a solution drawn on it.
+     * @param result - A solve of this maze.
+     */
+    void print(SolveResult result) {
+        print(result.overlay(int_cells()), " %c ");
+    }
+
     /**
      * Print method. Front end.
      */
     void print() {
-        print(new char[FULL_SIZE], "   ");
+        print(null, "   ");
     }
 
     /**
@@ -388,50 +591,13 @@ class Maze {
      * @param format - The C's printf style formatting string parameter. e.g. %3c
      */
     void print(char[] filler, String format) {
-    	// Start a new output dump. StringBuilder is faster than multiple System.out.println
-        StringBuilder output = new StringBuilder(FULL_SIZE*10);
-
-        // Top edge of the maze.
-        output.append("+   ");
-        for (int col = 1; col < SIZE; col++)
-            output.append("+---");
-        output.append("+\n");
-
-        // Middle of the maze.
-        for (int row = 0; row < SIZE; row++) {
-        	// Do a row.
-            output.append("|");
-            for (int col = 0; col < SIZE - 1; col++) {
-                output.append(String.format(format, filler[row * SIZE + col]));
-                if (maze[EAST][row * SIZE + col] == CONNECTED)
-                    output.append(" ");
-                else
-                    output.append("|");
-            }
-            output.append(String.format(format, filler[(row + 1) * SIZE - 1]));
-            output.append("|\n");
-
-            if (row == SIZE - 1)
-                break;
-
-            // Edge below the row we just did.
-            output.append("+");
-            for (int col = 0; col < SIZE; col++) {
-                if (maze[SOUTH][row * SIZE + col] == CONNECTED)
-                    output.append("   +");
-                else
-                    output.append("---+");
-            }
-            output.append("\n");
+        // Stream the picture straight out, a buffer at a time.
+        try {
+            new MazeRenderer(this).render(filler, format, (OutputStream)System.out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-
-        // Bottom edge.
-        for (int col = 0; col < SIZE - 1; col++)
-            output.append("+---");
-        output.append("+   +\n");
-
-        // Print, finally.
-        System.out.println(output.toString());
+        System.out.println();
     } 
     
     /**
@@ -439,52 +605,75 @@ class Maze {
      */
     int dfs_solve()
     {
-        // This tree will contain the solution of the maze,
-        // from which we can traverse backwards.
-    	Solution solution = new Solution();
+        SolveResult result = dfs(0, int_cells() - 1, true);
+        if (!result.solved()) {
+            System.out.println("Stack empty. Couldn't find a solution.");
+            return -1;
+        }
 
-        // Initialize a stack and a pointer for it.
-        int[] stack = new int[FULL_SIZE];
+        print(result.order(), " %c ");
+        print(result);
+        
+        return result.visited;
+    }
+
+    /**
+     * Headless depth-first solve. Like bfs, it only works in the thread's workspace.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @param record_order - Whether to keep the traversal order for print.
+     * @return The result. Its path has to be read before this thread solves again.
+     */
+    SolveResult dfs(int start, int end, boolean record_order) {
+        long began = metrics.enabled() ? System.nanoTime() : 0;
+        SolverWorkspace work = SolverWorkspace.current().prepare(int_cells());
+
+        // The stack holds the path from the entrance to the current cell.
+        int[] stack = work.cells;
+        int[] parent = work.parent;
         int top = 0;
 
         // Initialize current cell, cells visited, and destination.
-        int current = 0;
+        int current = start;
         int total_visited = 1;
-        maze[VISITED][current] = EXPLORED;
+        work.mark(current);
+        stack[top++] = current;
 
-        // Initialize an array that will hold the traversal order.
-        // It gets passed to the print method.
-        char[] order = new char[FULL_SIZE];
-        for (int i = 0; i < FULL_SIZE; i++)
-            order[i] = ' ';
-        order[0] = '0';
+        // Initialize an array that will hold the traversal order, if we want one.
+        char[] order = record_order ? work.order() : null;
+        if (order != null)
+            order[current] = '0';
 
-        // Clear any visited data.
-    	maze[VISITED] = new int[FULL_SIZE];
+        // For the metrics: deepest the stack got, and times we backed out of a dead end.
+        int peak = 1;
+        long dead_ends = 0;
 
-        while (current < FULL_SIZE - 1) {
+        while (current != end) {
             // Find which way we want to go.
-            int destination = dfs_pick_destination(current);
+            int destination = dfs_pick_destination(current, work);
 
             // If we dead end, pop the stack and check if we've run out of options.
             if (destination == -1) {
-                current = stack[top--];
-                if (top == -1) {
-                    System.out.println("Stack empty. Couldn't find a solution.");
-                    return -1;
-                }
+                top--;
+                dead_ends++;
+                if (top == 0)
+                    return report("dfs", began, new SolveResult(start, end, -1, total_visited, work, order), peak, dead_ends);
+                current = stack[top - 1];
                 continue;
             }
             else {
                 // Store the traversal order and solution tree.
-                order[destination] = (char)(total_visited % 10 + '0');
-                solution.add(current, destination);
+                if (order != null)
+                    order[destination] = (char)(total_visited % 10 + '0');
+                parent[destination] = current;
 
-                // 
+                // Step in and push.
                 current = destination;
-                maze[VISITED][current] = EXPLORED;
+                work.mark(current);
                 stack[top++] = current;
                 total_visited++;
+                if (top > peak)
+                    peak = top;
             }
             // Uncomment the following four lines to see the dfs in action.
 //            try {
@@ -495,45 +684,44 @@ class Maze {
                 
         }
 
-        print(order, " %c ");
-        print(solution.find_solution(), " %c ");
-        
-        return total_visited;
+        // The stack is the path.
+        return report("dfs", began, new SolveResult(start, end, top, total_visited, work, order), peak, dead_ends);
     }
 
     /**
      * Similar to the pick_destination method, but here we are interested
      * in cells that *are* connected to us and have not been traversed.
      * @param current - The current cell number.
+     * @param work - The workspace holding what has been traversed.
      * @returns A direction in which to go. Priority: EAST, SOUTH, WEST, NORTH.
      */
-    int dfs_pick_destination(int current) {
+    int dfs_pick_destination(int current, SolverWorkspace work) {
         // EAST.
-        int destination = current + 1;
-        if (destination % SIZE != 0) 
-            if (maze[EAST][current] == CONNECTED)
-                if (maze[VISITED][destination] == VIRGIN)
+        int destination = layout.east(current);
+        if (destination != -1) 
+            if (storage.wall(EAST, current) == CONNECTED)
+                if (!work.seen(destination))
                     return destination;
         
         // SOUTH.
-        destination = current + SIZE;
-        if (destination < FULL_SIZE) 
-            if (maze[SOUTH][current] == CONNECTED)
-                if (maze[VISITED][destination] == VIRGIN)
+        destination = layout.south(current);
+        if (destination != -1) 
+            if (storage.wall(SOUTH, current) == CONNECTED)
+                if (!work.seen(destination))
                     return destination;
 
         // WEST.
-        destination = current - 1;
-        if (current % SIZE != 0) 
-            if (maze[EAST][destination] == CONNECTED)
-                if (maze[VISITED][destination] == VIRGIN)
+        destination = layout.west(current);
+        if (destination != -1) 
+            if (storage.wall(EAST, destination) == CONNECTED)
+                if (!work.seen(destination))
                     return destination;
 
         // NORTH.
-        destination = current - SIZE;
-        if (destination >= 0) 
-            if (maze[SOUTH][destination] == CONNECTED)
-                if (maze[VISITED][destination] == VIRGIN)
+        destination = layout.north(current);
+        if (destination != -1) 
+            if (storage.wall(SOUTH, destination) == CONNECTED)
+                if (!work.seen(destination))
                     return destination;
         
         return -1;
@@ -545,37 +733,28 @@ class Maze {
  */
 class MazeSolve {
     /**
-     * Pretty straightforward. We generate a maze grid, print it, turn int into a maze, print it,
-     * solve it DFS and BFS, and report the number of steps it took.
+     * Generates and solves mazes as the arguments say, e.g.
+     * --size 2000 --count 100 --generator eller --solver bfs --threads 8 --output none
+     * and reports how fast it went. With no arguments, one 10*10 maze and its path.
      */ 
     public static void main(String[] args) {
-    	int size = 10;
-
-    	Scanner scanner = new Scanner(System.in);
-    	System.out.print("Enter a maze size (10 would be a good choice): ");
-    	try {
-    		size = scanner.nextInt();
-    		if (size < 1 || size > 100) 
-    			throw new Exception();
-    	}
-    	catch (Exception e) {
-    		System.out.println("Bad size. Going with 10.\n");
-    		size = 10;
-    	}
-    	finally {
-    		scanner.close();
-    	}
-    	
-        Maze maze = new Maze(size);
-        System.out.println("Plain grid.");
-        maze.print();
-        System.out.println("Maze generated.");
-        maze.mazify();
-        maze.print();
-        System.out.println("Solving using DFS.");
-        int dfs = maze.dfs_solve();
-        System.out.println("Solving using BFS.");
-        int bfs = maze.bfs_solve();
-        System.out.println("\nDFS moves: " + dfs + "\nBFS moves: " + bfs);
+        MazeBatch.Options options;
+        try {
+            options = MazeBatch.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + "\n" + MazeBatch.USAGE);
+            System.exit(2);
+            return;
+        }
+        if (options.help) {
+            System.out.println(MazeBatch.USAGE);
+            return;
+        }
+        try {
+            MazeBatch.run(options, System.out);
+        } catch (IOException | RuntimeException e) {
+            System.err.println("Failed: " + e);
+            System.exit(1);
+        }
     }
 }
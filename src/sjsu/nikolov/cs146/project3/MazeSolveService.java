@@ -0,0 +1,221 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * MazeSolveService runs many generate and solve jobs at once.
+ * Jobs run on virtual threads where the JVM has them, or on a fixed pool of
+ * threads, and only so many are in flight: past that, submitting blocks the
+ * caller until a job finishes, so a big batch never piles up in memory.
+ *
+ * Solvers only read the walls. Their scratch state lives in a workspace,
+ * which each job borrows from the service's pool for as long as it runs,
+ * so any number of jobs can solve the same Maze without copying it.
+ * Generating writes the maze, so only ever generate mazes nobody else is using.
+ * Every result comes back with its path already read out of the workspace.
+ */
+final class MazeSolveService implements AutoCloseable {
+    /**
+     * Job is a maze to generate and solve from corner to corner.
+     */
+    static final class Job {
+        final int size;
+        final MazeGenerator generator;
+        final GeneratorConfig config;
+        final MazeSolver solver;
+
+        /**
+         * @param size - The row length of the maze.
+         * @param generator - How to carve it.
+         * @param config - Where the randomness comes from.
+         * @param solver - How to solve it.
+         */
+        Job(int size, MazeGenerator generator, GeneratorConfig config, MazeSolver solver) {
+            this.size = size;
+            this.generator = generator;
+            this.config = config;
+            this.solver = solver;
+        }
+    }
+
+    /**
+     * Outcome is what a job made: the maze, how generating it went, and its solve.
+     */
+    static final class Outcome {
+        final Maze maze;
+        final MazeGenerator.Report report;
+        final SolveResult result;
+        final long solve_nanos;
+
+        /**
+         * @param maze - The generated maze.
+         * @param report - Time and memory of the generation.
+         * @param result - The solve, path included.
+         * @param solve_nanos - Time taken by the solve.
+         */
+        Outcome(Maze maze, MazeGenerator.Report report, SolveResult result, long solve_nanos) {
+            this.maze = maze;
+            this.report = report;
+            this.result = result;
+            this.solve_nanos = solve_nanos;
+        }
+    }
+
+    private final ExecutorService executor;
+    private final Semaphore in_flight;
+    private final ConcurrentLinkedQueue<SolverWorkspace> workspaces = new ConcurrentLinkedQueue<>();
+
+    // Whether jobs run on virtual threads.
+    final boolean virtual;
+
+    /**
+     * A service on a fixed pool of platform threads.
+     * @param threads - Threads in the pool.
+     * @param in_flight - Jobs that may be queued or running at once. Each running
+     * job holds a workspace the size of its maze, so this bounds the memory too.
+     */
+    MazeSolveService(int threads, int in_flight) {
+        this(fixed_pool(threads), in_flight, false);
+    }
+
+    private MazeSolveService(ExecutorService executor, int in_flight, boolean virtual) {
+        if (in_flight < 1)
+            throw new IllegalArgumentException("Bad number of jobs in flight: " + in_flight);
+        this.executor = executor;
+        this.in_flight = new Semaphore(in_flight);
+        this.virtual = virtual;
+    }
+
+    /**
+     * A service running every job on a virtual thread of its own. Without
+     * virtual threads (before Java 21), a fixed pool of one thread per processor.
+     * @param in_flight - Jobs that may be running at once.
+     * @return The service.
+     */
+    static MazeSolveService virtual(int in_flight) {
+        // Looked up by reflection, so that this still compiles and runs on older JVMs.
+        try {
+            ExecutorService executor = (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+            return new MazeSolveService(executor, in_flight, true);
+        } catch (ReflectiveOperationException e) {
+            return new MazeSolveService(Runtime.getRuntime().availableProcessors(), in_flight);
+        }
+    }
+
+    private static ExecutorService fixed_pool(int threads) {
+        if (threads < 1)
+            throw new IllegalArgumentException("Bad number of threads: " + threads);
+        AtomicInteger count = new AtomicInteger();
+        return Executors.newFixedThreadPool(threads, task -> {
+            Thread thread = new Thread(task, "maze-solve-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Solves a maze that other jobs may be solving too. Blocks while the service is full.
+     * @param maze - The maze. It must not change until the solve is done.
+     * @param solver - How to solve it.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @return The result, path included.
+     */
+    CompletableFuture<SolveResult> solve(Maze maze, MazeSolver solver, int start, int end) {
+        return submit(() -> detach(solver.solve(maze, start, end)));
+    }
+
+    /**
+     * Generates and solves a maze. Blocks while the service is full.
+     * @param job - What to do.
+     * @return What came of it.
+     */
+    CompletableFuture<Outcome> submit(Job job) {
+        return submit(() -> {
+            Maze maze = new Maze(job.size);
+            MazeGenerator.Report report = maze.generate(job.generator, job.config);
+            long start = System.nanoTime();
+            SolveResult result = detach(job.solver.solve(maze, 0, maze.int_cells() - 1));
+            return new Outcome(maze, report, result, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Submits jobs in order, blocking whenever the service is full.
+     * @param jobs - What to do.
+     * @return What comes of each job, in the same order.
+     */
+    List<CompletableFuture<Outcome>> submit_all(List<Job> jobs) {
+        List<CompletableFuture<Outcome>> outcomes = new ArrayList<>(jobs.size());
+        for (Job job : jobs)
+            outcomes.add(submit(job));
+        return outcomes;
+    }
+
+    /**
+     * Takes a place in flight, then runs the task in a borrowed workspace.
+     */
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            in_flight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return CompletableFuture.failedFuture(e);
+        }
+        try {
+            CompletableFuture<T> future = CompletableFuture.supplyAsync(() -> in_workspace(task), executor);
+            future.whenComplete((result, failure) -> in_flight.release());
+            return future;
+        } catch (RejectedExecutionException e) {
+            in_flight.release();
+            throw e;
+        }
+    }
+
+    private <T> T in_workspace(Supplier<T> task) {
+        SolverWorkspace work = workspaces.poll();
+        if (work == null)
+            work = new SolverWorkspace();
+        SolverWorkspace.install(work);
+        try {
+            return task.get();
+        } finally {
+            SolverWorkspace.install(null);
+            workspaces.offer(work);
+        }
+    }
+
+    /**
+     * Reads the path out of the workspace, before the workspace goes to the next job.
+     * @param result - A result that may be backed by the workspace.
+     * @return The same result, backed by its own copy of the path.
+     */
+    private static SolveResult detach(SolveResult result) {
+        int[] path = result.path();
+        return new SolveResult(result.start, result.end, result.length, result.visited,
+                into -> System.arraycopy(path, 0, into, 0, path.length));
+    }
+
+    /**
+     * Lets running jobs finish, then stops.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Test;
+
+
+public class MazeSolveServiceTester
+{
+	@Test
+	public void one_maze_many_jobs() throws Exception
+	{
+		Maze maze = new Maze(150);
+		maze.mazify(new GeneratorConfig(21));
+		int cells = maze.int_cells();
+		try (MazeSolveService service = new MazeSolveService(4, 6)) {
+			List<CompletableFuture<SolveResult>> futures = new ArrayList<>();
+			for (int i = 0; i < 42; i++)
+				futures.add(service.solve(maze, MazeSolver.ALL[i % MazeSolver.ALL.length], i * 397 % cells, cells - 1 - i * 113 % cells));
+			for (int i = 0; i < futures.size(); i++) {
+				SolveResult result = futures.get(i).get(1, TimeUnit.MINUTES);
+				assertEquals(maze.bfs(result.start, result.end, false).length, result.length);
+				MazeSolverTester.assert_walkable(maze, result);
+			}
+		}
+	}
+
+	@Test
+	public void batch() throws Exception
+	{
+		List<MazeSolveService.Job> jobs = new ArrayList<>();
+		for (int i = 0; i < 10; i++)
+			jobs.add(new MazeSolveService.Job(30 + i, MazeGenerator.ALL[i % MazeGenerator.ALL.length], new GeneratorConfig(i), MazeSolver.ASTAR));
+		try (MazeSolveService service = MazeSolveService.virtual(3)) {
+			List<CompletableFuture<MazeSolveService.Outcome>> outcomes = service.submit_all(jobs);
+			for (int i = 0; i < jobs.size(); i++) {
+				MazeSolveService.Outcome outcome = outcomes.get(i).get(1, TimeUnit.MINUTES);
+				Maze expected = new Maze(30 + i);
+				expected.generate(jobs.get(i).generator, jobs.get(i).config);
+				assertEquals(expected.bfs(0, expected.int_cells() - 1, false).length, outcome.result.length);
+				assertEquals(jobs.get(i).generator.name(), outcome.report.generator);
+				MazeGeneratorTester.assert_perfect(outcome.maze);
+				MazeSolverTester.assert_walkable(outcome.maze, outcome.result);
+			}
+		}
+	}
+
+	@Test
+	public void virtual_when_available()
+	{
+		try (MazeSolveService service = MazeSolveService.virtual(1)) {
+			assertEquals(Runtime.version().feature() >= 21, service.virtual);
+		}
+	}
+
+	@Test
+	public void full_service_blocks() throws Exception
+	{
+		CountDownLatch release = new CountDownLatch(1);
+		MazeSolver stuck = new MazeSolver() {
+			public String name()
+			{
+				return "stuck";
+			}
+
+			public SolveResult solve(Maze maze, int start, int end)
+			{
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new IllegalStateException(e);
+				}
+				return maze.bfs(start, end, false);
+			}
+		};
+		Maze maze = new Maze(5);
+		maze.mazify(new GeneratorConfig(2));
+		try (MazeSolveService service = new MazeSolveService(1, 2)) {
+			CompletableFuture<SolveResult> first = service.solve(maze, stuck, 0, 24);
+			CompletableFuture<SolveResult> second = service.solve(maze, stuck, 0, 24);
+
+			// The third has to wait for a place.
+			CountDownLatch submitted = new CountDownLatch(1);
+			Thread third = new Thread(() -> {
+				service.solve(maze, MazeSolver.BFS, 0, 24);
+				submitted.countDown();
+			});
+			third.start();
+			assertFalse(submitted.await(200, TimeUnit.MILLISECONDS));
+
+			release.countDown();
+			assertTrue(submitted.await(1, TimeUnit.MINUTES));
+			assertEquals(first.get().length, second.get().length);
+			third.join();
+		}
+	}
+}
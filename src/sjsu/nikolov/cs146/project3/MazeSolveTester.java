@@ -1,15 +1,21 @@
 package sjsu.nikolov.cs146.project3;
 import static org.junit.Assert.*;
+import java.util.concurrent.ForkJoinPool;
 import org.junit.Test;
 
 
 public class MazeSolveTester
 {
+	private static MazeValidator.Report check(Maze maze)
+	{
+		return new MazeValidator(ForkJoinPool.commonPool(), MazeSolver.BFS).check(maze);
+	}
 	@Test
 	public void maze04()
 	{
 		Maze maze = new Maze(4);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 4);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
@@ -24,6 +30,7 @@ public class MazeSolveTester
 	{
 		Maze maze = new Maze(5);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 5);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
@@ -38,6 +45,7 @@ public class MazeSolveTester
 	{
 		Maze maze = new Maze(6);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 6);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
@@ -52,6 +60,7 @@ public class MazeSolveTester
 	{
 		Maze maze = new Maze(7);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 7);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
@@ -66,6 +75,7 @@ public class MazeSolveTester
 	{
 		Maze maze = new Maze(8);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 8);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
@@ -80,6 +90,7 @@ public class MazeSolveTester
 	{
 		Maze maze = new Maze(10);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 10);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
@@ -93,9 +104,14 @@ public class MazeSolveTester
 	public void maze_unsolvable() {
 		Maze maze = new Maze(10);
 		maze.mazify();
+		assertTrue(check(maze).perfect());
 		System.out.println("Maze of size " + 10);
 		System.out.println("Making maze unsolvable.");
 		maze.render_unsolvable();
+		MazeValidator.Report report = check(maze);
+		assertFalse(report.perfect());
+		assertTrue(report.components > 1);
+		assertEquals(-1, report.solution);
 		System.out.println("Solving using DFS.");
 		int dfs = maze.dfs_solve();
 		System.out.println("Solving using BFS.");
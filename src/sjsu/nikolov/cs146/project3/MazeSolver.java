@@ -0,0 +1,84 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * MazeSolver is an algorithm that finds a path between two cells of a maze.
+ * Every solver hands back the same SolveResult, so they can be swapped freely.
+ */
+interface MazeSolver {
+    // Breadth-first, always the shortest path.
+    MazeSolver BFS = new MazeSolver() {
+        public String name() {
+            return "bfs";
+        }
+
+        public SolveResult solve(Maze maze, int start, int end) {
+            return maze.bfs(start, end, false);
+        }
+    };
+
+    // Depth-first, the first path it stumbles on.
+    MazeSolver DFS = new MazeSolver() {
+        public String name() {
+            return "dfs";
+        }
+
+        public SolveResult solve(Maze maze, int start, int end) {
+            return maze.dfs(start, end, false);
+        }
+    };
+
+    MazeSolver ASTAR = new AStarSolver();
+    MazeSolver BIDIRECTIONAL = new BidirectionalSolver();
+
+    // Word-parallel flood fill. Converts the walls on every call; to solve the
+    // same maze many times, keep a BitboardMaze and solve on that instead.
+    MazeSolver BITBOARD = new MazeSolver() {
+        public String name() {
+            return "bitboard";
+        }
+
+        public SolveResult solve(Maze maze, int start, int end) {
+            return new BitboardMaze(maze).solve(start, end);
+        }
+    };
+
+    // Dijkstra over the junctions, once the dead ends are filled. Contracts the
+    // maze on every call; to solve the same maze many times, keep a JunctionGraph.
+    MazeSolver JUNCTION = new MazeSolver() {
+        public String name() {
+            return "junction";
+        }
+
+        public SolveResult solve(Maze maze, int start, int end) {
+            return new JunctionGraph(maze).solve(start, end);
+        }
+    };
+
+    MazeSolver[] ALL = { BFS, DFS, ASTAR, BIDIRECTIONAL, BITBOARD, JUNCTION };
+
+    /**
+     * @return A short name, e.g. "bfs".
+     */
+    String name();
+
+    /**
+     * Finds a path. Workspace-backed results must be read before the thread solves again.
+     * @param maze - The maze.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @return The result.
+     */
+    SolveResult solve(Maze maze, int start, int end);
+
+    /**
+     * Finds a solver by name.
+     * @param name - As returned by name().
+     * @return The solver.
+     */
+    static MazeSolver named(String name) {
+        for (MazeSolver solver : ALL)
+            if (solver.name().equalsIgnoreCase(name))
+                return solver;
+        throw new IllegalArgumentException("No solver called " + name);
+    }
+}
@@ -0,0 +1,182 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.random.RandomGenerator;
+import org.junit.Test;
+
+
+public class MazeSolverTester
+{
+	/**
+	 * Checks that a path really is one: right ends, and every step goes through an open wall.
+	 */
+	static void assert_walkable(Maze maze, SolveResult result)
+	{
+		int[] path = result.path();
+		assertEquals(result.length, path.length);
+		assertEquals(result.start, path[0]);
+		assertEquals(result.end, path[path.length - 1]);
+		for (int i = 1; i < path.length; i++) {
+			boolean open = false;
+			for (int direction = 0; direction < 4; direction++)
+				open |= maze.passage(path[i - 1], direction) == path[i];
+			assertTrue(open);
+		}
+	}
+
+	@Test
+	public void heap_order()
+	{
+		IntMinHeap heap = new IntMinHeap();
+		int[] keys = { 5, 3, 9, 1, 3, 7, 0, 200, 2 };
+		for (int i = 0; i < keys.length; i++)
+			heap.push(keys[i], i);
+		long last = Long.MIN_VALUE;
+		while (!heap.is_empty()) {
+			long key = heap.peek_key();
+			int value = heap.pop();
+			assertTrue(key >= last);
+			assertEquals(keys[value], key);
+			last = key;
+		}
+		// Grows past its first arrays.
+		for (int i = 1000; i > 0; i--)
+			heap.push(i, i);
+		assertEquals(1000, heap.size());
+		assertEquals(1, heap.pop());
+	}
+
+	@Test
+	public void all_agree_on_perfect_mazes()
+	{
+		// One path only, so every solver must find the same one.
+		Maze maze = new Maze(40);
+		maze.mazify(new GeneratorConfig(17));
+		int[] expected = maze.bfs(0, 1599, false).path();
+		for (MazeSolver solver : MazeSolver.ALL) {
+			SolveResult result = solver.solve(maze, 0, 1599);
+			assert_walkable(maze, result);
+			assertArrayEquals(expected, result.path());
+		}
+	}
+
+	@Test
+	public void shortest_on_loops()
+	{
+		// randomise leaves loops, so only the shortest path length is unique.
+		for (long seed = 0; seed < 20; seed++) {
+			Maze maze = new Maze(30);
+			maze.randomise(new GeneratorConfig(seed));
+			for (MazeSolver solver : new MazeSolver[] { MazeSolver.ASTAR, MazeSolver.BIDIRECTIONAL }) {
+				int end = (int)(seed * 131 % 900);
+				SolveResult bfs = maze.bfs(7, end, false);
+				SolveResult result = solver.solve(maze, 7, end);
+				assertEquals(bfs.length, result.length);
+				if (result.solved())
+					assert_walkable(maze, result);
+			}
+		}
+	}
+
+	@Test
+	public void astar_reaches_fewer_cells()
+	{
+		// Knock down most walls, so there is plenty of room to head straight for the end.
+		Maze maze = new Maze(100);
+		long bfs = 0;
+		long astar = 0;
+		for (int cell = 0; cell < maze.cells(); cell++) {
+			if ((cell + 1) % 100 != 0)
+				maze.set_wall(MazeStorage.EAST, cell, cell % 7 == 3 ? 0 : MazeStorage.CONNECTED);
+			if (cell < 9900)
+				maze.set_wall(MazeStorage.SOUTH, cell, cell % 11 == 5 ? 0 : MazeStorage.CONNECTED);
+		}
+		for (int end : new int[] { 9999, 5050, 990 }) {
+			SolveResult a = MazeSolver.ASTAR.solve(maze, 0, end);
+			SolveResult b = maze.bfs(0, end, false);
+			assertEquals(b.length, a.length);
+			bfs += b.visited;
+			astar += a.visited;
+		}
+		assertTrue(astar * 2 < bfs);
+	}
+
+	@Test
+	public void bidirectional_reaches_fewer_cells()
+	{
+		Maze maze = new Maze(200);
+		maze.mazify(new GeneratorConfig(9));
+		// Add loops, so the shortest path is no longer the only one.
+		GeneratorConfig config = new GeneratorConfig(10);
+		RandomGenerator rand = config.random();
+		for (int i = 0; i < 8000; i++)
+			maze.set_wall(rand.nextInt(2), rand.nextInt(199 * 200), MazeStorage.CONNECTED);
+		// Two cells well inside, where one search from the start floods outwards past the end.
+		SolveResult bfs = maze.bfs(70 * 200 + 70, 130 * 200 + 130, false);
+		SolveResult both = MazeSolver.BIDIRECTIONAL.solve(maze, 70 * 200 + 70, 130 * 200 + 130);
+		assertEquals(bfs.length, both.length);
+		assert_walkable(maze, both);
+		assertTrue(both.visited * 3 < bfs.visited * 2);
+	}
+
+	@Test
+	public void parallel_levels()
+	{
+		// Tiny grain and no threshold, so even small levels are forked.
+		ForkJoinPool pool = new ForkJoinPool(4);
+		MazeSolver parallel = new ParallelBfsSolver(pool, 0, 3);
+		for (long seed = 0; seed < 10; seed++) {
+			Maze maze = new Maze(60);
+			if (seed % 2 == 0)
+				maze.mazify(new GeneratorConfig(seed));
+			else
+				maze.randomise(new GeneratorConfig(seed));
+			int end = (int)(seed * 353 % 3600);
+			SolveResult bfs = maze.bfs(0, end, false);
+			SolveResult result = parallel.solve(maze, 0, end);
+			assertEquals(bfs.length, result.length);
+			if (result.solved())
+				assert_walkable(maze, result);
+		}
+		pool.shutdown();
+	}
+
+	@Test
+	public void bitboard_across_words()
+	{
+		// 150 columns: three words a row, so moves carry across word edges.
+		for (long seed = 0; seed < 6; seed++) {
+			Maze maze = new Maze(150);
+			if (seed % 2 == 0)
+				maze.mazify(new GeneratorConfig(seed));
+			else
+				maze.randomise(new GeneratorConfig(seed));
+			BitboardMaze board = new BitboardMaze(maze);
+			for (int end : new int[] { 22499, 63, 64, 150 * 75 + 128, 1 }) {
+				SolveResult bfs = maze.bfs(5, end, false);
+				SolveResult result = board.solve(5, end);
+				assertEquals(bfs.length, result.length);
+				if (result.solved())
+					assert_walkable(maze, result);
+			}
+		}
+	}
+
+	@Test
+	public void bidirectional_same_cell()
+	{
+		Maze maze = new Maze(5);
+		maze.mazify(new GeneratorConfig(1));
+		assertArrayEquals(new int[] { 12 }, MazeSolver.BIDIRECTIONAL.solve(maze, 12, 12).path());
+	}
+
+	@Test
+	public void unsolvable()
+	{
+		Maze maze = new Maze(10);
+		maze.mazify(new GeneratorConfig(1));
+		maze.render_unsolvable();
+		for (MazeSolver solver : MazeSolver.ALL)
+			assertFalse(solver.solve(maze, 0, 99).solved());
+	}
+}
@@ -0,0 +1,67 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * MazeStorage is where a Maze keeps its cells. Every cell owns two walls,
+ * EAST and SOUTH, and a visit state used while generating or solving.
+ * Cell numbers are longs, so a storage can hold more than 2^31 cells.
+ * @author Aaron Mednick
+ * @author Todor Nikolov
+ *
+ */
+interface MazeStorage {
+    // Wall sides, the same numbering the Maze class uses.
+    int EAST = 0;
+    int SOUTH = 1;
+
+    // A wall value of CONNECTED means there is a passage, anything else is a wall.
+    int CONNECTED = 1;
+
+    /**
+     * @return The total number of cells this storage holds.
+     */
+    long cells();
+
+    /**
+     * Reads one wall of a cell.
+     * @param side - EAST or SOUTH.
+     * @param cell - The cell number.
+     * @return CONNECTED if the wall is knocked down, 0 otherwise.
+     */
+    int wall(int side, long cell);
+
+    /**
+     * Writes one wall of a cell.
+     * @param side - EAST or SOUTH.
+     * @param cell - The cell number.
+     * @param value - CONNECTED to knock the wall down, 0 to put it back up.
+     */
+    void set_wall(int side, long cell, int value);
+
+    /**
+     * Knocks down one wall, safely against other threads knocking down walls of other cells.
+     * Storages where neighboring cells share a memory word must override this;
+     * for the rest a plain write is already safe.
+     * @param side - EAST or SOUTH.
+     * @param cell - The cell number.
+     */
+    default void open_wall_atomic(int side, long cell) {
+        set_wall(side, cell, CONNECTED);
+    }
+
+    /**
+     * @param cell - The cell number.
+     * @return The visit state of the cell: VIRGIN, TOUCHED or EXPLORED.
+     */
+    int visited(long cell);
+
+    /**
+     * @param cell - The cell number.
+     * @param state - VIRGIN, TOUCHED or EXPLORED.
+     */
+    void set_visited(long cell, int state);
+
+    /**
+     * Sets every cell back to VIRGIN without touching the walls.
+     */
+    void clear_visited();
+}
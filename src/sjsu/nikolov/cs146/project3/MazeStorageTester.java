@@ -0,0 +1,97 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class MazeStorageTester
+{
+	@Test
+	public void packed_walls()
+	{
+		PackedMazeStorage storage = new PackedMazeStorage(100);
+		storage.set_wall(MazeStorage.EAST, 31, MazeStorage.CONNECTED);
+		storage.set_wall(MazeStorage.SOUTH, 32, MazeStorage.CONNECTED);
+		assertEquals(MazeStorage.CONNECTED, storage.wall(MazeStorage.EAST, 31));
+		assertEquals(0, storage.wall(MazeStorage.SOUTH, 31));
+		assertEquals(0, storage.wall(MazeStorage.EAST, 32));
+		assertEquals(MazeStorage.CONNECTED, storage.wall(MazeStorage.SOUTH, 32));
+		storage.set_wall(MazeStorage.EAST, 31, 0);
+		assertEquals(0, storage.wall(MazeStorage.EAST, 31));
+	}
+
+	@Test
+	public void packed_visits()
+	{
+		PackedMazeStorage storage = new PackedMazeStorage(100);
+		storage.set_wall(MazeStorage.EAST, 50, MazeStorage.CONNECTED);
+		storage.set_visited(50, 2);
+		storage.set_visited(51, 1);
+		assertEquals(2, storage.visited(50));
+		assertEquals(1, storage.visited(51));
+		storage.clear_visited();
+		assertEquals(0, storage.visited(50));
+		assertEquals(MazeStorage.CONNECTED, storage.wall(MazeStorage.EAST, 50));
+	}
+
+	@Test
+	public void array_adapter()
+	{
+		// A 2x2 maze with a passage EAST of cell 0 and SOUTH of cell 1.
+		int[][] walls = { { 1, 0, 0, 0 }, { 0, 1, 0, 0 } };
+		Maze maze = new Maze(walls);
+		maze.print();
+		assertEquals(3, maze.bfs_solve());
+	}
+
+	@Test
+	public void off_heap_walls_and_visits()
+	{
+		// 16-byte buffers, so the cells spread over many of them.
+		try (OffHeapMazeStorage storage = new OffHeapMazeStorage(1000, 4)) {
+			storage.set_wall(MazeStorage.EAST, 31, MazeStorage.CONNECTED);
+			storage.open_wall_atomic(MazeStorage.SOUTH, 999);
+			storage.set_visited(64, 2);
+			assertEquals(MazeStorage.CONNECTED, storage.wall(MazeStorage.EAST, 31));
+			assertEquals(0, storage.wall(MazeStorage.SOUTH, 31));
+			assertEquals(MazeStorage.CONNECTED, storage.wall(MazeStorage.SOUTH, 999));
+			assertEquals(2, storage.visited(64));
+			storage.clear_visited();
+			assertEquals(0, storage.visited(64));
+			assertEquals(MazeStorage.CONNECTED, storage.wall(MazeStorage.EAST, 31));
+		}
+	}
+
+	@Test
+	public void off_heap_same_maze() throws Exception
+	{
+		// Generation, both solvers and print all go through the storage.
+		Maze heap = new Maze(33);
+		heap.mazify(new GeneratorConfig(6));
+		try (OffHeapMazeStorage storage = new OffHeapMazeStorage(33 * 33, 6)) {
+			Maze off = new Maze(33, storage);
+			off.mazify(new GeneratorConfig(6));
+			assertArrayEquals(heap.bfs(0, 1088, false).path(), off.bfs(0, 1088, false).path());
+			assertEquals(heap.dfs(0, 1088, false).visited, off.dfs(0, 1088, false).visited);
+			StringBuilder expected = new StringBuilder();
+			StringBuilder actual = new StringBuilder();
+			new MazeRenderer(heap).render(heap.bfs(0, 1088, false).overlay(1089), " %c ", expected);
+			new MazeRenderer(off).render(off.bfs(0, 1088, false).overlay(1089), " %c ", actual);
+			assertEquals(expected.toString(), actual.toString());
+		}
+	}
+
+	@Test
+	public void off_heap_parallel_generation()
+	{
+		// Tiles on several threads knock walls in shared words, atomically.
+		Maze heap = new Maze(300);
+		heap.generate(MazeGenerator.TILED, new GeneratorConfig(2));
+		try (OffHeapMazeStorage storage = new OffHeapMazeStorage(300 * 300)) {
+			Maze off = new Maze(300, storage);
+			off.generate(MazeGenerator.TILED, new GeneratorConfig(2));
+			for (long cell = 0; cell < 300 * 300; cell++)
+				assertEquals(heap.storage.wall(MazeStorage.SOUTH, cell) + 2 * heap.storage.wall(MazeStorage.EAST, cell),
+						storage.wall(MazeStorage.SOUTH, cell) + 2 * storage.wall(MazeStorage.EAST, cell));
+		}
+	}
+}
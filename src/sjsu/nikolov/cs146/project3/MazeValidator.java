@@ -0,0 +1,375 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * MazeValidator checks that a maze is perfect, connected and free of loops,
+ * and measures it while it is at it.
+ *
+ * The rows are cut into bands, and each band is scanned on its own thread.
+ * The scan reads each wall once, into a mask of the ways out of every cell of
+ * the band, and feeds the passages to a union-find of the band's cells: a
+ * passage joining two cells already joined closes a loop. The corridors come
+ * out of a second union-find, of the cells with exactly two ways out joined to
+ * each other: a run of k of them is a corridor k + 1 passages long, from one
+ * dead end or junction to the next. Only the first and last rows of a band are
+ * kept, as labels of the sets reaching them, and the merge goes down the seams
+ * between bands, joining labels across each SOUTH passage there.
+ * A maze is perfect when it has one set and no loops, that is, exactly
+ * cells - 1 passages and all of them joining two sets.
+ */
+final class MazeValidator {
+    // Cells per band by default, enough that a band is worth a task.
+    private static final int BAND_CELLS = 1 << 20;
+
+    // Corridors this long or longer share the last slot of the histogram.
+    static final int HISTOGRAM = 64;
+
+    private final ForkJoinPool pool;
+    private final MazeSolver solver;
+    private final int band_cells;
+
+    /**
+     * @param pool - Where the bands are scanned.
+     * @param solver - Finds the solution from the top left to the bottom right, or null to skip it.
+     */
+    MazeValidator(ForkJoinPool pool, MazeSolver solver) {
+        this(pool, solver, BAND_CELLS);
+    }
+
+    /**
+     * @param pool - Where the bands are scanned.
+     * @param solver - Finds the solution from the top left to the bottom right, or null to skip it.
+     * @param band_cells - About how many cells a band gets. Always at least a row.
+     */
+    MazeValidator(ForkJoinPool pool, MazeSolver solver, int band_cells) {
+        if (band_cells < 1)
+            throw new IllegalArgumentException("Bad band size: " + band_cells);
+        this.pool = pool;
+        this.solver = solver;
+        this.band_cells = band_cells;
+    }
+
+    /**
+     * Report is what a check found.
+     */
+    static final class Report {
+        final long cells;
+        final long passages;
+
+        // Passages that closed a loop, and separate pieces of the maze.
+        final long loops;
+        final long components;
+
+        // Cells with one passage, three or four, and none.
+        final long dead_ends;
+        final long junctions;
+        final long isolated;
+
+        // Corridors by length in passages, from one cell with other than two
+        // passages to the next; the last slot has the ones HISTOGRAM long or longer.
+        final long[] corridors;
+        final long longest_corridor;
+
+        // Cells on the solution from corner to corner, -1 if there is none or it was not asked for.
+        final int solution;
+
+        private Report(long cells, long passages, long loops, long components, long dead_ends, long junctions,
+                long isolated, long[] corridors, long longest_corridor, int solution) {
+            this.cells = cells;
+            this.passages = passages;
+            this.loops = loops;
+            this.components = components;
+            this.dead_ends = dead_ends;
+            this.junctions = junctions;
+            this.isolated = isolated;
+            this.corridors = corridors;
+            this.longest_corridor = longest_corridor;
+            this.solution = solution;
+        }
+
+        /**
+         * @return Whether every cell can be reached from every other in exactly one way.
+         */
+        boolean perfect() {
+            return passages == cells - 1 && loops == 0 && components == 1;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d cells, %d passages, %d loops, %d pieces, %d dead ends, %d junctions, longest corridor %d, solution %d",
+                    perfect() ? "perfect" : "not perfect", cells, passages, loops, components, dead_ends, junctions,
+                    longest_corridor, solution);
+        }
+    }
+
+    /**
+     * Checks and measures a maze. It must not change while this runs.
+     * @param maze - The maze.
+     * @return What was found.
+     */
+    Report check(Maze maze) {
+        int cells = maze.int_cells();
+        int size = maze.size();
+        int rows = Math.max(1, band_cells / size);
+        Band[] bands = new Band[(size + rows - 1) / rows];
+        for (int b = 0; b < bands.length; b++)
+            bands[b] = new Band(b * rows, Math.min(size, (b + 1) * rows));
+        pool.invoke(new Scan(maze, bands, 0, bands.length));
+
+        // Add up the bands, giving each band's labels a range of their own.
+        long passages = 0;
+        long loops = 0;
+        long components = 0;
+        long dead_ends = 0;
+        long junctions = 0;
+        long isolated = 0;
+        long[] corridors = new long[HISTOGRAM + 1];
+        long longest = 0;
+        int labels = 0;
+        int runs = 0;
+        for (Band band : bands) {
+            passages += band.passages;
+            loops += band.loops;
+            components += band.components;
+            dead_ends += band.dead_ends;
+            junctions += band.junctions;
+            isolated += band.isolated;
+            for (int i = 0; i <= HISTOGRAM; i++)
+                corridors[i] += band.corridors[i];
+            longest = Math.max(longest, band.longest);
+            band.base = labels;
+            labels += band.labels;
+            band.run_base = runs;
+            runs += band.runs;
+        }
+
+        // Sew the bands together along the SOUTH passages of each band's last row.
+        UnionFind seams = new UnionFind(labels);
+        UnionFind joined = new UnionFind(runs);
+        long[] run_cells = new long[runs];
+        for (Band band : bands)
+            for (int run = 0; run < band.runs; run++)
+                run_cells[band.run_base + run] = band.run_cells[run];
+        for (int b = 0; b + 1 < bands.length; b++) {
+            Band above = bands[b];
+            Band below = bands[b + 1];
+            for (int col = 0; col < size; col++) {
+                if (maze.storage.wall(MazeStorage.SOUTH, maze.cell(above.bottom - 1, col)) != MazeStorage.CONNECTED)
+                    continue;
+                passages++;
+                if (seams.union(above.base + above.last[col], below.base + below.first[col]))
+                    components--;
+                else
+                    loops++;
+
+                // A run going on over the seam, or a corridor that is just this passage.
+                int up = above.run_last[col];
+                int down = below.run_first[col];
+                if (up != -1 && down != -1) {
+                    int upper = joined.find(above.run_base + up);
+                    int lower = joined.find(below.run_base + down);
+                    if (joined.union(upper, lower))
+                        run_cells[joined.find(upper)] = run_cells[upper] + run_cells[lower];
+                } else if (up == -1 && down == -1)
+                    corridors[1]++;
+            }
+        }
+
+        // Runs that went over a seam are only whole now.
+        for (int run = 0; run < runs; run++)
+            if (joined.find(run) == run) {
+                long length = run_cells[run] + 1;
+                corridors[(int)Math.min(length, HISTOGRAM)]++;
+                longest = Math.max(longest, length);
+            }
+
+        int solution = solver == null ? -1 : solver.solve(maze, 0, cells - 1).length;
+        return new Report(cells, passages, loops, components, dead_ends, junctions, isolated, corridors, longest, solution);
+    }
+
+    /**
+     * Band is some whole rows and what was found in them.
+     */
+    private static final class Band {
+        final int top;
+        final int bottom;
+
+        long passages;
+        long loops;
+        long components;
+        long dead_ends;
+        long junctions;
+        long isolated;
+        final long[] corridors = new long[HISTOGRAM + 1];
+        long longest;
+
+        // The label of each cell of the first and last rows, one per set of the band.
+        int[] first;
+        int[] last;
+        int labels;
+
+        // Runs of two-way cells that go over a seam, left for the merge: the run of
+        // each cell of the first and last rows (-1 for other cells), and their cells.
+        int[] run_first;
+        int[] run_last;
+        long[] run_cells;
+        int runs;
+
+        // Where this band's labels and runs start, once the bands are added up.
+        int base;
+        int run_base;
+
+        Band(int top, int bottom) {
+            this.top = top;
+            this.bottom = bottom;
+        }
+    }
+
+    /**
+     * Scan is a range of bands. It splits in half until it has one band, then scans it.
+     */
+    private static final class Scan extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        // Ways out of a cell, one bit per direction.
+        private static final int EAST = 1 << 0;
+        private static final int SOUTH = 1 << 1;
+        private static final int WEST = 1 << 2;
+        private static final int NORTH = 1 << 3;
+
+        private final Maze maze;
+        private final Band[] bands;
+        private final int from;
+        private final int to;
+
+        Scan(Maze maze, Band[] bands, int from, int to) {
+            this.maze = maze;
+            this.bands = bands;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Scan(maze, bands, from, middle), new Scan(maze, bands, middle, to));
+                return;
+            }
+            scan(bands[from]);
+        }
+
+        private void scan(Band band) {
+            int size = maze.size();
+            int rows = band.bottom - band.top;
+            int cells = rows * size;
+            MazeStorage storage = maze.storage;
+
+            // Read every wall once. Walls on the edge of the maze lead nowhere.
+            byte[] ways = new byte[cells];
+            for (int row = 0; row < rows; row++)
+                for (int col = 0; col < size; col++) {
+                    long cell = maze.cell(band.top + row, col);
+                    int local = row * size + col;
+                    if (col + 1 < size && storage.wall(MazeStorage.EAST, cell) == MazeStorage.CONNECTED) {
+                        ways[local] |= EAST;
+                        ways[local + 1] |= WEST;
+                    }
+                    if (band.top + row + 1 < size && storage.wall(MazeStorage.SOUTH, cell) == MazeStorage.CONNECTED) {
+                        ways[local] |= SOUTH;
+                        if (row + 1 < rows)
+                            ways[local + size] |= NORTH;
+                    }
+                }
+            if (band.top > 0)
+                for (int col = 0; col < size; col++)
+                    if (storage.wall(MazeStorage.SOUTH, maze.cell(band.top - 1, col)) == MazeStorage.CONNECTED)
+                        ways[col] |= NORTH;
+
+            // Join the sets along the passages inside the band, and the runs of two-way cells.
+            // The SOUTH passages of the last row are the merge's.
+            UnionFind sets = new UnionFind(cells);
+            UnionFind runs = new UnionFind(cells);
+            for (int local = 0; local < cells; local++) {
+                int way = ways[local];
+                int degree = Integer.bitCount(way);
+                if (degree == 0)
+                    band.isolated++;
+                else if (degree == 1)
+                    band.dead_ends++;
+                else if (degree > 2)
+                    band.junctions++;
+
+                if ((way & EAST) != 0)
+                    join(band, sets, runs, ways, local, local + 1);
+                if ((way & SOUTH) != 0 && local + size < cells)
+                    join(band, sets, runs, ways, local, local + size);
+            }
+            band.components = (long)cells - band.passages + band.loops;
+
+            // Label the sets on the first and last rows, and the runs that go over a seam.
+            int[] label = new int[cells];
+            Arrays.fill(label, -1);
+            band.first = new int[size];
+            band.last = new int[size];
+            for (int col = 0; col < size; col++) {
+                band.first[col] = label(sets, label, col, band);
+                band.last[col] = label(sets, label, cells - size + col, band);
+            }
+            Arrays.fill(label, -1);
+            band.run_first = new int[size];
+            band.run_last = new int[size];
+            band.run_cells = new long[2 * size];
+            for (int col = 0; col < size; col++) {
+                band.run_first[col] = seam_run(runs, label, ways, col, NORTH, band);
+                band.run_last[col] = seam_run(runs, label, ways, cells - size + col, SOUTH, band);
+            }
+
+            // Every other run is whole already.
+            for (int local = 0; local < cells; local++)
+                if (Integer.bitCount(ways[local]) == 2 && runs.find(local) == local && label[local] == -1) {
+                    long length = runs.size(local) + 1;
+                    band.corridors[(int)Math.min(length, HISTOGRAM)]++;
+                    band.longest = Math.max(band.longest, length);
+                }
+        }
+
+        /**
+         * Counts a passage between two cells of the band, and joins their sets and, if both are two-way, their runs.
+         */
+        private static void join(Band band, UnionFind sets, UnionFind runs, byte[] ways, int a, int b) {
+            band.passages++;
+            if (!sets.union(a, b))
+                band.loops++;
+            boolean a_run = Integer.bitCount(ways[a]) == 2;
+            boolean b_run = Integer.bitCount(ways[b]) == 2;
+            if (a_run && b_run)
+                runs.union(a, b);
+            else if (!a_run && !b_run)
+                band.corridors[1]++;
+        }
+
+        private static int label(UnionFind sets, int[] label, int local, Band band) {
+            int root = sets.find(local);
+            if (label[root] == -1)
+                label[root] = band.labels++;
+            return label[root];
+        }
+
+        /**
+         * @return The label of the run a two-way cell with a passage over the seam is on, -1 for any other cell.
+         */
+        private static int seam_run(UnionFind runs, int[] label, byte[] ways, int local, int seam, Band band) {
+            if ((ways[local] & seam) == 0 || Integer.bitCount(ways[local]) != 2)
+                return -1;
+            int root = runs.find(local);
+            if (label[root] == -1) {
+                label[root] = band.runs;
+                band.run_cells[band.runs++] = runs.size(root);
+            }
+            return label[root];
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+
+
+public class MazeValidatorTester
+{
+	// Small bands, so that even small mazes have seams to sew.
+	private static final MazeValidator BANDS = new MazeValidator(ForkJoinPool.commonPool(), MazeSolver.BFS, 30);
+
+	@Test
+	public void generators_are_perfect()
+	{
+		for (MazeGenerator generator : MazeGenerator.ALL)
+			for (int size : new int[] { 1, 2, 7, 40 }) {
+				Maze maze = new Maze(size);
+				maze.generate(generator, new GeneratorConfig(size));
+				MazeValidator.Report report = BANDS.check(maze);
+				assertTrue(generator.name() + " " + report, report.perfect());
+				assertEquals(maze.cells() - 1, report.passages);
+				assertEquals(maze.bfs(0, maze.int_cells() - 1, false).length, report.solution);
+				assertEquals(size == 1 ? 1 : 0, report.isolated);
+			}
+		Maze tiled = new Maze(MazeLayout.tiled(128));
+		tiled.mazify(new GeneratorConfig(3));
+		assertTrue(BANDS.check(tiled).perfect());
+		assertTrue(new MazeValidator(ForkJoinPool.commonPool(), null).check(tiled).perfect());
+	}
+
+	@Test
+	public void same_counts_as_one_pass()
+	{
+		// A random maze has loops and pieces, and the bands have to agree with one union-find over it all.
+		for (int band : new int[] { 1, 30, 1 << 20 }) {
+			Maze maze = new Maze(37);
+			maze.randomise(new GeneratorConfig(band));
+			MazeValidator.Report report = new MazeValidator(ForkJoinPool.commonPool(), null, band).check(maze);
+
+			UnionFind sets = new UnionFind(maze.int_cells());
+			long passages = 0;
+			long loops = 0;
+			long components = maze.cells();
+			long dead_ends = 0;
+			long junctions = 0;
+			for (int cell = 0; cell < maze.cells(); cell++) {
+				int degree = 0;
+				for (int direction = 0; direction < 4; direction++) {
+					int next = maze.passage(cell, direction);
+					if (next == -1)
+						continue;
+					degree++;
+					if (next < cell)
+						continue;
+					passages++;
+					if (sets.union(cell, next))
+						components--;
+					else
+						loops++;
+				}
+				dead_ends += degree == 1 ? 1 : 0;
+				junctions += degree > 2 ? 1 : 0;
+			}
+			assertEquals(passages, report.passages);
+			assertEquals(loops, report.loops);
+			assertEquals(components, report.components);
+			assertEquals(dead_ends, report.dead_ends);
+			assertEquals(junctions, report.junctions);
+			assertEquals(-1, report.solution);
+			assertFalse(report.perfect());
+		}
+	}
+
+	@Test
+	public void loops_and_pieces_across_seams()
+	{
+		Maze maze = new Maze(40);
+		maze.mazify(new GeneratorConfig(4));
+		// Bands of 40 cells are single rows, so every SOUTH passage is on a seam.
+		MazeValidator rows = new MazeValidator(ForkJoinPool.commonPool(), null, 40);
+		assertTrue(rows.check(maze).perfect());
+
+		int cell = 0;
+		while (maze.storage.wall(MazeStorage.SOUTH, cell) == MazeStorage.CONNECTED)
+			cell++;
+		maze.set_wall(MazeStorage.SOUTH, cell, MazeStorage.CONNECTED);
+		MazeValidator.Report looped = rows.check(maze);
+		assertEquals(1, looped.loops);
+		assertEquals(1, looped.components);
+		assertFalse(looped.perfect());
+
+		int cut = 0;
+		while (maze.storage.wall(MazeStorage.SOUTH, cut) != MazeStorage.CONNECTED || cut == cell)
+			cut++;
+		maze.set_wall(MazeStorage.SOUTH, cell, 0);
+		maze.set_wall(MazeStorage.SOUTH, cut, 0);
+		MazeValidator.Report split = rows.check(maze);
+		assertEquals(0, split.loops);
+		assertEquals(2, split.components);
+		assertEquals(maze.cells() - 2, split.passages);
+	}
+
+	/**
+	 * Corridors found the slow way: walking out of every cell that is not in the middle of one.
+	 */
+	private static long[] walked_corridors(Maze maze)
+	{
+		long[] corridors = new long[MazeValidator.HISTOGRAM + 1];
+		for (int cell = 0; cell < maze.cells(); cell++) {
+			if (ways(maze, cell) == 2)
+				continue;
+			for (int direction = 0; direction < 4; direction++) {
+				int previous = cell;
+				int current = maze.passage(cell, direction);
+				if (current == -1)
+					continue;
+				int length = 1;
+				while (ways(maze, current) == 2) {
+					int next = -1;
+					for (int d = 0; d < 4; d++)
+						if (maze.passage(current, d) != -1 && maze.passage(current, d) != previous)
+							next = maze.passage(current, d);
+					previous = current;
+					current = next;
+					length++;
+				}
+				// Each corridor once, from its lower end.
+				if (current > cell)
+					corridors[Math.min(length, MazeValidator.HISTOGRAM)]++;
+			}
+		}
+		return corridors;
+	}
+
+	private static int ways(Maze maze, int cell)
+	{
+		int ways = 0;
+		for (int direction = 0; direction < 4; direction++)
+			ways += maze.passage(cell, direction) != -1 ? 1 : 0;
+		return ways;
+	}
+
+	@Test
+	public void corridors_over_seams()
+	{
+		for (MazeGenerator generator : MazeGenerator.ALL) {
+			Maze maze = new Maze(60);
+			maze.generate(generator, new GeneratorConfig(7));
+			long[] walked = walked_corridors(maze);
+			// Bands of one row, of a few rows, and one band.
+			for (int band : new int[] { 1, 200, 1 << 20 }) {
+				MazeValidator.Report report = new MazeValidator(ForkJoinPool.commonPool(), null, band).check(maze);
+				assertArrayEquals(generator.name() + " " + band, walked, report.corridors);
+			}
+		}
+	}
+
+	@Test
+	public void corridors()
+	{
+		// A snake: along the first row, down, back along the second, and so on. One corridor of 24.
+		Maze snake = new Maze(5);
+		for (int row = 0; row < 5; row++) {
+			for (int col = 0; col < 4; col++)
+				snake.set_wall(MazeStorage.EAST, snake.cell(row, col), MazeStorage.CONNECTED);
+			if (row < 4)
+				snake.set_wall(MazeStorage.SOUTH, snake.cell(row, row % 2 == 0 ? 4 : 0), MazeStorage.CONNECTED);
+		}
+		MazeValidator.Report report = BANDS.check(snake);
+		assertTrue(report.perfect());
+		assertEquals(2, report.dead_ends);
+		assertEquals(0, report.junctions);
+		assertEquals(1, report.corridors[24]);
+		assertEquals(24, report.longest_corridor);
+		assertEquals(25, report.solution);
+
+		// In any perfect maze every passage is on exactly one corridor.
+		Maze maze = new Maze(60);
+		maze.mazify(new GeneratorConfig(5));
+		report = BANDS.check(maze);
+		long counted = 0;
+		long corridors = 0;
+		for (int length = 0; length < MazeValidator.HISTOGRAM; length++) {
+			counted += length * report.corridors[length];
+			corridors += report.corridors[length];
+		}
+		corridors += report.corridors[MazeValidator.HISTOGRAM];
+		assertTrue(report.longest_corridor < MazeValidator.HISTOGRAM || report.corridors[MazeValidator.HISTOGRAM] > 0);
+		if (report.corridors[MazeValidator.HISTOGRAM] == 0)
+			assertEquals(report.passages, counted);
+		// A tree with d dead ends and junctions of degree k has corridors half the sum of their degrees.
+		long ends = 0;
+		for (int cell = 0; cell < maze.cells(); cell++) {
+			int degree = 0;
+			for (int direction = 0; direction < 4; direction++)
+				degree += maze.passage(cell, direction) != -1 ? 1 : 0;
+			ends += degree != 2 ? degree : 0;
+		}
+		assertEquals(ends / 2, corridors);
+	}
+}
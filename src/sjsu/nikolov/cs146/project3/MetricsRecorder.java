@@ -0,0 +1,201 @@
+package sjsu.nikolov.cs146.project3;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * MetricsRecorder adds up the runs it hears, per generator or solver name,
+ * from any number of threads at once. Read it with snapshot, or through JMX
+ * if it was made with exported: one MXBean per name, under
+ * sjsu.nikolov.cs146.project3:type=MazeRuns,name=...
+ */
+final class MetricsRecorder implements MazeMetrics {
+    static final String DOMAIN = "sjsu.nikolov.cs146.project3";
+
+    private final ConcurrentHashMap<String, Runs> runs = new ConcurrentHashMap<>();
+
+    // Where each name is registered as it first runs, or null.
+    private final MBeanServer server;
+
+    /**
+     * A recorder read through snapshot only.
+     */
+    MetricsRecorder() {
+        this(null);
+    }
+
+    /**
+     * @param server - Where to register the MXBeans, or null for none.
+     */
+    MetricsRecorder(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * @return A recorder on the platform MBean server, for jconsole and the like.
+     */
+    static MetricsRecorder exported() {
+        return new MetricsRecorder(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    public void run(String name, long cells, int peak, long knocked, long dead_ends, int path, long nanos) {
+        Runs counts = runs.get(name);
+        if (counts == null)
+            counts = runs.computeIfAbsent(name, this::start);
+        counts.runs.increment();
+        counts.cells.add(cells);
+        counts.peak.accumulateAndGet(peak, Math::max);
+        counts.knocked.add(knocked);
+        counts.dead_ends.add(dead_ends);
+        if (path > 0)
+            counts.path_cells.add(path);
+        counts.nanos.add(nanos);
+    }
+
+    private Runs start(String name) {
+        Runs counts = new Runs();
+        if (server != null) {
+            // The latest recorder for a name takes its place in JMX.
+            try {
+                ObjectName object = name(name);
+                if (server.isRegistered(object))
+                    server.unregisterMBean(object);
+                server.registerMBean(counts, object);
+            } catch (JMException e) {
+                throw new IllegalStateException("Could not export metrics for " + name, e);
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * @param name - A generator or solver name.
+     * @return Its MXBean's name.
+     */
+    static ObjectName name(String name) throws JMException {
+        return new ObjectName(DOMAIN + ":type=MazeRuns,name=" + ObjectName.quote(name));
+    }
+
+    /**
+     * Takes the recorder's MXBeans off the server.
+     */
+    void unexport() {
+        if (server == null)
+            return;
+        for (String name : runs.keySet())
+            try {
+                server.unregisterMBean(name(name));
+            } catch (JMException ignored) {
+                // Another recorder took its place, or it was never there.
+            }
+    }
+
+    /**
+     * @param name - A generator or solver name.
+     * @return Its counts so far, all zeros if it never ran.
+     */
+    Snapshot snapshot(String name) {
+        Runs counts = runs.get(name);
+        return counts == null ? new Snapshot(name, new Runs()) : new Snapshot(name, counts);
+    }
+
+    /**
+     * @return The counts so far of everything that ran, by name.
+     */
+    Map<String, Snapshot> snapshot() {
+        Map<String, Snapshot> result = new TreeMap<>();
+        runs.forEach((name, counts) -> result.put(name, new Snapshot(name, counts)));
+        return result;
+    }
+
+    /**
+     * Snapshot is the counts of one name at one time. Each count is exact,
+     * but taken while runs go on, they may be a run apart from one another.
+     */
+    static final class Snapshot {
+        final String name;
+        final long runs;
+        final long cells;
+        final int peak;
+        final long knocked;
+        final long dead_ends;
+        final long path_cells;
+        final long nanos;
+
+        private Snapshot(String name, Runs counts) {
+            this.name = name;
+            this.runs = counts.getRuns();
+            this.cells = counts.getCellsVisited();
+            this.peak = counts.getPeakDepth();
+            this.knocked = counts.getWallsKnocked();
+            this.dead_ends = counts.getDeadEnds();
+            this.path_cells = counts.getPathCells();
+            this.nanos = counts.getNanos();
+        }
+
+        /**
+         * @return Time per visited cell, over all runs.
+         */
+        double nanos_per_cell() {
+            return cells == 0 ? 0 : (double)nanos / cells;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d runs, %d cells, peak %d, %d walls knocked, %d dead ends, %d path cells, %.1f ms, %.1f ns/cell",
+                    name, runs, cells, peak, knocked, dead_ends, path_cells, nanos / 1e6, nanos_per_cell());
+        }
+    }
+
+    /**
+     * Runs is the running counts of one name.
+     */
+    private static final class Runs implements MazeRunsMXBean {
+        final LongAdder runs = new LongAdder();
+        final LongAdder cells = new LongAdder();
+        final AtomicInteger peak = new AtomicInteger();
+        final LongAdder knocked = new LongAdder();
+        final LongAdder dead_ends = new LongAdder();
+        final LongAdder path_cells = new LongAdder();
+        final LongAdder nanos = new LongAdder();
+
+        public long getRuns() {
+            return runs.sum();
+        }
+
+        public long getCellsVisited() {
+            return cells.sum();
+        }
+
+        public int getPeakDepth() {
+            return peak.get();
+        }
+
+        public long getWallsKnocked() {
+            return knocked.sum();
+        }
+
+        public long getDeadEnds() {
+            return dead_ends.sum();
+        }
+
+        public long getPathCells() {
+            return path_cells.sum();
+        }
+
+        public long getNanos() {
+            return nanos.sum();
+        }
+
+        public double getNanosPerCell() {
+            long visited = cells.sum();
+            return visited == 0 ? 0 : (double)nanos.sum() / visited;
+        }
+    }
+}
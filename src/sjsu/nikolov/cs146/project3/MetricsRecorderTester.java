@@ -0,0 +1,118 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import org.junit.Test;
+
+
+public class MetricsRecorderTester
+{
+	@Test
+	public void counts_a_run_of_each()
+	{
+		MetricsRecorder recorder = new MetricsRecorder();
+		Maze maze = new Maze(30);
+		maze.set_metrics(recorder);
+		maze.mazify(new GeneratorConfig(4));
+
+		MetricsRecorder.Snapshot made = recorder.snapshot("backtracker");
+		assertEquals(1, made.runs);
+		assertEquals(900, made.cells);
+		assertEquals(899, made.knocked);
+		assertTrue(made.peak > 1 && made.peak <= 900);
+		assertTrue(made.dead_ends > 0);
+		assertTrue(made.nanos > 0);
+
+		SolveResult wide = maze.bfs(0, 899, false);
+		MetricsRecorder.Snapshot bfs = recorder.snapshot("bfs");
+		assertEquals(1, bfs.runs);
+		assertEquals(wide.visited, bfs.cells);
+		assertEquals(wide.length, bfs.path_cells);
+		assertTrue(bfs.peak > 0);
+		assertEquals(0, bfs.knocked);
+
+		SolveResult deep = maze.dfs(0, 899, false);
+		MetricsRecorder.Snapshot dfs = recorder.snapshot("dfs");
+		assertEquals(deep.visited, dfs.cells);
+		assertEquals(deep.length, dfs.path_cells);
+		assertTrue(dfs.peak >= deep.length);
+		// Every cell reached and not on the path was backed out of.
+		assertEquals(deep.visited - deep.length, dfs.dead_ends);
+		assertTrue(dfs.nanos_per_cell() > 0);
+
+		assertEquals(3, recorder.snapshot().size());
+	}
+
+	@Test
+	public void off_by_default()
+	{
+		MetricsRecorder recorder = new MetricsRecorder();
+		Maze maze = new Maze(10);
+		maze.mazify(new GeneratorConfig(1));
+		maze.bfs(0, 99, false);
+		assertTrue(recorder.snapshot().isEmpty());
+		assertFalse(MazeMetrics.NONE.enabled());
+
+		maze.set_metrics(recorder);
+		maze.bfs(0, 99, false);
+		maze.set_metrics(MazeMetrics.NONE);
+		maze.bfs(0, 99, false);
+		assertEquals(1, recorder.snapshot("bfs").runs);
+		assertEquals(0, recorder.snapshot("dfs").runs);
+	}
+
+	@Test
+	public void unsolved_has_no_path()
+	{
+		MetricsRecorder recorder = new MetricsRecorder();
+		Maze maze = new Maze(10);
+		maze.mazify(new GeneratorConfig(1));
+		maze.render_unsolvable();
+		maze.set_metrics(recorder);
+		maze.bfs(0, 99, false);
+		maze.dfs(0, 99, false);
+		assertEquals(0, recorder.snapshot("bfs").path_cells);
+		assertEquals(0, recorder.snapshot("dfs").path_cells);
+		assertEquals(recorder.snapshot("dfs").cells, recorder.snapshot("dfs").dead_ends);
+	}
+
+	@Test
+	public void many_threads() throws Exception
+	{
+		MetricsRecorder recorder = new MetricsRecorder();
+		Thread[] threads = new Thread[4];
+		for (int i = 0; i < threads.length; i++) {
+			long seed = i;
+			threads[i] = new Thread(() -> {
+				Maze maze = new Maze(50);
+				maze.set_metrics(recorder);
+				for (int run = 0; run < 5; run++)
+					maze.mazify(new GeneratorConfig(seed * 10 + run));
+			});
+			threads[i].start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertEquals(20, recorder.snapshot("backtracker").runs);
+		// The walls pile up run after run, but every run still visits every cell.
+		assertEquals(20 * 2500, recorder.snapshot("backtracker").cells);
+	}
+
+	@Test
+	public void exported_through_jmx() throws Exception
+	{
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		MetricsRecorder recorder = new MetricsRecorder(server);
+		Maze maze = new Maze(12);
+		maze.mazify(new GeneratorConfig(2));
+		maze.set_metrics(recorder);
+		SolveResult result = maze.bfs(0, 143, false);
+		maze.bfs(0, 143, false);
+
+		assertEquals(2L, server.getAttribute(MetricsRecorder.name("bfs"), "Runs"));
+		assertEquals(2L * result.visited, server.getAttribute(MetricsRecorder.name("bfs"), "CellsVisited"));
+		assertEquals(2L * result.length, server.getAttribute(MetricsRecorder.name("bfs"), "PathCells"));
+		recorder.unexport();
+		assertFalse(server.isRegistered(MetricsRecorder.name("bfs")));
+	}
+}
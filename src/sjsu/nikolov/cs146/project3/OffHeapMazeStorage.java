@@ -0,0 +1,86 @@
+package sjsu.nikolov.cs146.project3;
+
+/**
+ * OffHeapMazeStorage keeps the walls and visit states of PackedMazeStorage,
+ * packed the same way, in direct buffers outside the Java heap. The collector
+ * never scans or moves them, so a huge maze costs it nothing, and wiping the
+ * visit states is a bulk fill instead of a new array.
+ * The storage has a lifetime of its own: make it in a try-with-resources
+ * block and do not touch it, or its Maze, after close.
+ */
+final class OffHeapMazeStorage implements MazeStorage, AutoCloseable {
+    private static final int WORD_SHIFT = 5;
+    private static final int CELL_MASK = PackedMazeStorage.CELLS_PER_WORD - 1;
+
+    private final long cells;
+
+    // Wall bits and visit states. Null once closed.
+    private WordChunks walls;
+    private WordChunks visits;
+
+    /**
+     * Constructor creating a blank storage, all walls up and all cells VIRGIN.
+     * @param cells - The number of cells.
+     */
+    OffHeapMazeStorage(long cells) {
+        this(cells, WordChunks.CHUNK_SHIFT);
+    }
+
+    /**
+     * Same, with the size of the buffers given, so that small mazes can be cut into many.
+     * @param cells - The number of cells.
+     * @param chunk_shift - Bytes per buffer, as a shift.
+     */
+    OffHeapMazeStorage(long cells, int chunk_shift) {
+        if (cells < 0)
+            throw new IllegalArgumentException("Cannot pack " + cells + " cells.");
+        this.cells = cells;
+        long words = (cells + CELL_MASK) >>> WORD_SHIFT;
+        walls = WordChunks.allocate_direct(words, chunk_shift);
+        visits = WordChunks.allocate_direct(words, chunk_shift);
+    }
+
+    public long cells() {
+        return cells;
+    }
+
+    public int wall(int side, long cell) {
+        return (int)(walls.get(cell >>> WORD_SHIFT) >>> ((((int)cell & CELL_MASK) << 1) | side)) & 1;
+    }
+
+    public void set_wall(int side, long cell, int value) {
+        long word = cell >>> WORD_SHIFT;
+        long bit = 1L << ((((int)cell & CELL_MASK) << 1) | side);
+        long old = walls.get(word);
+        walls.set(word, value == CONNECTED ? old | bit : old & ~bit);
+    }
+
+    public void open_wall_atomic(int side, long cell) {
+        walls.or_atomic(cell >>> WORD_SHIFT, 1L << ((((int)cell & CELL_MASK) << 1) | side));
+    }
+
+    public int visited(long cell) {
+        return (int)(visits.get(cell >>> WORD_SHIFT) >>> (((int)cell & CELL_MASK) << 1)) & 3;
+    }
+
+    public void set_visited(long cell, int state) {
+        long word = cell >>> WORD_SHIFT;
+        int shift = ((int)cell & CELL_MASK) << 1;
+        visits.set(word, (visits.get(word) & ~(3L << shift)) | ((long)(state & 3) << shift));
+    }
+
+    public void clear_visited() {
+        visits.clear();
+    }
+
+    /**
+     * Lets go of the buffers. Direct buffers have no way to be freed on the spot
+     * before Java's foreign memory API; their memory goes back once they are
+     * collected, which dropping them here allows.
+     */
+    @Override
+    public void close() {
+        walls = null;
+        visits = null;
+    }
+}
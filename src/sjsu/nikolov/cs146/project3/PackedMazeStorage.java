@@ -0,0 +1,119 @@
+package sjsu.nikolov.cs146.project3;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+/**
+ * PackedMazeStorage keeps two wall bits per cell, 32 cells to a long word.
+ * Bit 0 of a cell's pair is its EAST wall and bit 1 its SOUTH wall, a set bit meaning CONNECTED.
+ * The visit state is two bits per cell as well, in a separate array, so it can be wiped
+ * without touching the walls. A 100k*100k maze costs 2.5GB of walls instead of 160GB.
+ */
+class PackedMazeStorage implements MazeStorage {
+    // 32 cells of 2 bits fit a long. Cell number >>> 5 is the word, (cell & 31) * 2 the bit.
+    static final int CELLS_PER_WORD = 32;
+    private static final int WORD_SHIFT = 5;
+    private static final int CELL_MASK = CELLS_PER_WORD - 1;
+
+    // Atomic access to the wall words, for generators running on several threads.
+    private static final VarHandle WORDS = MethodHandles.arrayElementVarHandle(long[].class);
+
+    private final long cells;
+
+    // Wall bits and visit states, packed the same way.
+    final long[] walls;
+    private final long[] visits;
+
+    /**
+     * Constructor creating a blank storage, all walls up and all cells VIRGIN.
+     * @param cells - The number of cells.
+     */
+    PackedMazeStorage(long cells) {
+        long words = (cells + CELL_MASK) >>> WORD_SHIFT;
+        if (cells < 0 || words > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("Cannot pack " + cells + " cells.");
+        this.cells = cells;
+        walls = new long[(int)words];
+        visits = new long[(int)words];
+    }
+
+    public long cells() {
+        return cells;
+    }
+
+    public int wall(int side, long cell) {
+        return (int)(walls[(int)(cell >>> WORD_SHIFT)] >>> ((((int)cell & CELL_MASK) << 1) | side)) & 1;
+    }
+
+    public void set_wall(int side, long cell, int value) {
+        int word = (int)(cell >>> WORD_SHIFT);
+        long bit = 1L << ((((int)cell & CELL_MASK) << 1) | side);
+        if (value == CONNECTED)
+            walls[word] |= bit;
+        else
+            walls[word] &= ~bit;
+    }
+
+    public void open_wall_atomic(int side, long cell) {
+        WORDS.getAndBitwiseOr(walls, (int)(cell >>> WORD_SHIFT), 1L << ((((int)cell & CELL_MASK) << 1) | side));
+    }
+
+    public int visited(long cell) {
+        return (int)(visits[(int)(cell >>> WORD_SHIFT)] >>> (((int)cell & CELL_MASK) << 1)) & 3;
+    }
+
+    public void set_visited(long cell, int state) {
+        int word = (int)(cell >>> WORD_SHIFT);
+        int shift = ((int)cell & CELL_MASK) << 1;
+        visits[word] = (visits[word] & ~(3L << shift)) | ((long)(state & 3) << shift);
+    }
+
+    public void clear_visited() {
+        Arrays.fill(visits, 0);
+    }
+
+    /**
+     * Loads the walls from a channel, in the layout they are kept in memory:
+     * 32 cells to a little-endian long. This is what EllerGenerator.stream writes.
+     * @param in - Where to read from.
+     */
+    void read_walls(ReadableByteChannel in) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int word = 0;
+        while (word < walls.length) {
+            buffer.limit(Math.min(buffer.capacity(), (walls.length - word) * 8));
+            while (buffer.hasRemaining())
+                if (in.read(buffer) == -1)
+                    throw new EOFException("Walls end after " + word + " of " + walls.length + " words.");
+            buffer.flip();
+            int count = buffer.remaining() / 8;
+            buffer.asLongBuffer().get(walls, word, count);
+            word += count;
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Saves the walls to a channel, in the layout read_walls expects.
+     * @param out - Where to write.
+     */
+    void write_walls(WritableByteChannel out) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+        int word = 0;
+        while (word < walls.length) {
+            int count = Math.min(buffer.capacity() / 8, walls.length - word);
+            buffer.asLongBuffer().put(walls, word, count);
+            buffer.limit(count * 8);
+            while (buffer.hasRemaining())
+                out.write(buffer);
+            word += count;
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package sjsu.nikolov.cs146.project3;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Level-synchronous breadth-first search. Each level of the frontier is cut
+ * into ranges that are expanded on a ForkJoinPool, all into one next frontier.
+ * A cell is claimed by setting its seen bit with a compare-and-set, so only
+ * one thread ever writes its parent link and appends it to the next level.
+ * Small mazes, and small levels, are not worth the handover to the pool:
+ * the former go to the sequential bfs, the latter run on the calling thread.
+ * So does everything when the pool has a single thread.
+ * The path is the one a level-by-level search finds, so it is as short as bfs's,
+ * though where there are several such paths it may pick another one.
+ *
+ * It is not one of MazeSolver.ALL: no maze size has yet been measured where
+ * it beats bfs, so there is no threshold to give it. Run the pbfs benchmark on
+ * a many-core machine to find one.
+ */
+final class ParallelBfsSolver implements MazeSolver {
+    private static final VarHandle SEEN = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle FILLED;
+
+    static {
+        try {
+            FILLED = MethodHandles.lookup().findVarHandle(SolverWorkspace.class, "filled", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final ForkJoinPool pool;
+    private final long threshold;
+    private final int grain;
+
+    /**
+     * @param pool - Where the levels are expanded.
+     * @param threshold - Mazes with fewer cells than this are solved by the sequential bfs.
+     * @param grain - Frontier cells per task. Levels no bigger than this are not forked.
+     */
+    ParallelBfsSolver(ForkJoinPool pool, long threshold, int grain) {
+        if (grain < 1)
+            throw new IllegalArgumentException("Bad grain: " + grain);
+        this.pool = pool;
+        this.threshold = threshold;
+        this.grain = grain;
+    }
+
+    public String name() {
+        return "pbfs";
+    }
+
+    public SolveResult solve(Maze maze, int start, int end) {
+        if (maze.cells() < threshold || pool.getParallelism() == 1)
+            return maze.bfs(start, end, false);
+
+        SolverWorkspace work = SolverWorkspace.current().prepare(maze.int_cells());
+        int[] frontier = work.cells;
+        int[] next = work.back();
+        int[] parent = work.parent;
+
+        work.mark(start);
+        frontier[0] = start;
+        int count = 1;
+        int reached = 1;
+        while (count > 0 && !work.seen(end)) {
+            work.filled = 0;
+            Level level = new Level(maze, work, frontier, next, 0, count);
+            if (count <= grain)
+                level.compute();
+            else
+                pool.invoke(level);
+
+            // The next level becomes the frontier.
+            count = work.filled;
+            reached += count;
+            int[] swap = frontier;
+            frontier = next;
+            next = swap;
+        }
+        if (!work.seen(end))
+            return new SolveResult(start, end, -1, reached, work, null);
+
+        int length = 1;
+        for (int current = end; current != start; current = parent[current])
+            length++;
+        return new SolveResult(start, end, length, reached, work, null);
+    }
+
+    /**
+     * Sets a seen bit unless some thread got there first.
+     * @param seen - The seen bits.
+     * @param cell - The cell number.
+     * @return Whether this call set it.
+     */
+    private static boolean claim(long[] seen, int cell) {
+        int word = cell >>> 6;
+        long bit = 1L << cell;
+        // A plain read first: most cells we look at were claimed a level or more ago.
+        long old = seen[word];
+        while ((old & bit) == 0) {
+            long witness = (long)SEEN.compareAndExchange(seen, word, old, old | bit);
+            if (witness == old)
+                return true;
+            old = witness;
+        }
+        return false;
+    }
+
+    /**
+     * Level is a range of the frontier. It splits in half until it is at most
+     * a grain, then expands its cells into the buffer of the thread running it
+     * and copies the buffer into the next frontier in one go.
+     */
+    private final class Level extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Maze maze;
+        // The workspace of the solving thread: its seen bits, parents and next level count.
+        private final SolverWorkspace work;
+        private final int[] frontier;
+        private final int[] next;
+        private final int from;
+        private final int to;
+
+        Level(Maze maze, SolverWorkspace work, int[] frontier, int[] next, int from, int to) {
+            this.maze = maze;
+            this.work = work;
+            this.frontier = frontier;
+            this.next = next;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > grain) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Level(maze, work, frontier, next, from, middle),
+                        new Level(maze, work, frontier, next, middle, to));
+                return;
+            }
+
+            // At most four new cells per frontier cell. A leaf never waits on another
+            // task, so nothing else runs on this thread while it fills the buffer.
+            int[] found = SolverWorkspace.current().found(4 * (to - from));
+            long[] seen = work.seen;
+            int[] parent = work.parent;
+            int count = 0;
+            for (int i = from; i < to; i++) {
+                int current = frontier[i];
+                for (int direction = 0; direction < 4; direction++) {
+                    int destination = maze.passage(current, direction);
+                    if (destination != -1 && claim(seen, destination)) {
+                        parent[destination] = current;
+                        found[count++] = destination;
+                    }
+                }
+            }
+            System.arraycopy(found, 0, next, (int)FILLED.getAndAdd(work, count), count);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.random.RandomGenerator;
+
+/**
+ * Randomized Prim: grow the maze from one cell, each time taking a random cell
+ * off the frontier and joining it to a random neighbor already in the maze.
+ * Lots of short branches radiating from the start.
+ */
+final class PrimGenerator implements MazeGenerator {
+    // Where a cell is: not reached yet, on the frontier, or in the maze.
+    private static final byte OUT = 0;
+    private static final byte FRONTIER = 1;
+    private static final byte IN = 2;
+
+    public String name() {
+        return "prim";
+    }
+
+    public void generate(Maze maze, RandomGenerator rand) {
+        int cells = maze.int_cells();
+        byte[] state = new byte[cells];
+        int[] frontier = new int[cells];
+        int count = 0;
+
+        int start = rand.nextInt(cells);
+        state[start] = IN;
+        count = grow(maze, start, state, frontier, count);
+
+        while (count > 0) {
+            // Take a random frontier cell out, filling its slot from the end.
+            int pick = rand.nextInt(count);
+            int cell = frontier[pick];
+            frontier[pick] = frontier[--count];
+
+            // Join it to a random neighbor that is in the maze.
+            int inside = 0;
+            for (int direction = 0; direction < 4; direction++) {
+                int neighbor = maze.neighbor(cell, direction);
+                if (neighbor != -1 && state[neighbor] == IN)
+                    inside |= 1 << direction;
+            }
+            maze.knock_wall(cell, maze.neighbor(cell, MazeGenerator.random_direction(inside, rand)));
+            state[cell] = IN;
+            count = grow(maze, cell, state, frontier, count);
+        }
+    }
+
+    /**
+     * Puts the untouched neighbors of a cell on the frontier.
+     * @return The new frontier size.
+     */
+    private static int grow(Maze maze, int cell, byte[] state, int[] frontier, int count) {
+        for (int direction = 0; direction < 4; direction++) {
+            int neighbor = maze.neighbor(cell, direction);
+            if (neighbor != -1 && state[neighbor] == OUT) {
+                state[neighbor] = FRONTIER;
+                frontier[count++] = neighbor;
+            }
+        }
+        return count;
+    }
+
+    public long footprint(int size) {
+        // A state byte and a frontier slot per cell.
+        return 5L*size*size;
+    }
+}
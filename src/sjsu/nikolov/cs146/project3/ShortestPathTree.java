@@ -0,0 +1,250 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * ShortestPathTree keeps the breadth-first tree of a maze from one start cell
+ * while walls are opened and closed, without solving again from scratch.
+ * Walls have to be changed through it for it to notice.
+ *
+ * Opening a wall can only bring cells closer: if one side is now more than
+ * a step closer than the other, the search spreads out from there, into the
+ * cells that got closer and no further.
+ * Closing a wall only matters if it was a tree edge. Then the subtree hanging
+ * off it is cut loose, and every cell in it is given the best distance it can
+ * get from the cells around it that kept theirs, and those distances are
+ * settled smallest first inside the subtree. What gets no distance has become
+ * unreachable. Cells outside the subtree keep their paths, so they are not looked at.
+ * Either way an edit costs in proportion to the cells it changes, not the maze.
+ */
+final class ShortestPathTree {
+    private final Maze maze;
+    private final int start;
+    private final int end;
+
+    // Steps from the start (-1 if out of reach), and the cell we came from (-1 at the start and out of reach).
+    private final int[] distance;
+    private final int[] parent;
+
+    // Scratch for the repairs: a queue, a heap, and a stamp per cell marking the cut-off subtree.
+    private final int[] queue;
+    private final IntMinHeap heap = new IntMinHeap();
+    private final int[] stamp;
+    private int epoch;
+
+    // Cells whose distance the last edit looked at.
+    private int touched;
+
+    /**
+     * Solves a maze from a start cell, all of it at once.
+     * @param maze - The maze. From now on, change its walls through open_wall and close_wall only.
+     * @param start - Where the paths start.
+     * @param end - The cell solvable reports on.
+     */
+    ShortestPathTree(Maze maze, int start, int end) {
+        int cells = maze.int_cells();
+        this.maze = maze;
+        this.start = start;
+        this.end = end;
+        distance = new int[cells];
+        parent = new int[cells];
+        queue = new int[cells];
+        stamp = new int[cells];
+
+        Arrays.fill(distance, -1);
+        Arrays.fill(parent, -1);
+        distance[start] = 0;
+        queue[0] = start;
+        touched = spread(1);
+    }
+
+    /**
+     * @return Whether the end can be reached from the start.
+     */
+    boolean solvable() {
+        return distance[end] != -1;
+    }
+
+    /**
+     * @param cell - A cell.
+     * @return Steps from the start to it, -1 if it cannot be reached.
+     */
+    int distance(int cell) {
+        return distance[cell];
+    }
+
+    /**
+     * @param cell - A cell.
+     * @return The cell before it on its shortest path, -1 at the start or out of reach.
+     */
+    int parent(int cell) {
+        return parent[cell];
+    }
+
+    /**
+     * @return Cells the last edit (or the first solve) looked at.
+     */
+    int touched() {
+        return touched;
+    }
+
+    /**
+     * @param cell - Where to go.
+     * @return A shortest path from the start. Read it before the next edit.
+     */
+    SolveResult solve(int cell) {
+        int length = distance[cell] + 1;
+        return new SolveResult(start, cell, length == 0 ? -1 : length, length, into -> {
+            int current = cell;
+            for (int i = length - 1; i >= 0; i--) {
+                into[i] = current;
+                current = parent[current];
+            }
+        });
+    }
+
+    /**
+     * @return A shortest path to the end. Read it before the next edit.
+     */
+    SolveResult solve() {
+        return solve(end);
+    }
+
+    /**
+     * Knocks down a wall and brings closer whatever it brings closer.
+     * @param cell - A cell.
+     * @param direction - Which of its walls: 0 EAST, 1 SOUTH, 2 WEST, 3 NORTH.
+     * @return Whether the end can now be reached.
+     */
+    boolean open_wall(int cell, int direction) {
+        int other = set(cell, direction, MazeStorage.CONNECTED);
+        touched = 0;
+
+        // Spread from the side that got more than a step closer, if any.
+        int near = cell;
+        int far = other;
+        if (distance[near] == -1 || (distance[far] != -1 && distance[far] < distance[near])) {
+            near = other;
+            far = cell;
+        }
+        if (distance[near] == -1 || (distance[far] != -1 && distance[far] <= distance[near] + 1))
+            return solvable();
+
+        distance[far] = distance[near] + 1;
+        parent[far] = near;
+        queue[0] = far;
+        touched = spread(1);
+        return solvable();
+    }
+
+    /**
+     * Puts up a wall and moves, or cuts off, whatever hung from it.
+     * @param cell - A cell.
+     * @param direction - Which of its walls: 0 EAST, 1 SOUTH, 2 WEST, 3 NORTH.
+     * @return Whether the end can still be reached.
+     */
+    boolean close_wall(int cell, int direction) {
+        int other = set(cell, direction, 0);
+        touched = 0;
+
+        // Only a tree edge changes anything.
+        int root;
+        if (parent[other] == cell)
+            root = other;
+        else if (parent[cell] == other)
+            root = cell;
+        else
+            return solvable();
+
+        // The subtree under the wall, found through its parent links.
+        epoch++;
+        stamp[root] = epoch;
+        queue[0] = root;
+        int count = 1;
+        for (int i = 0; i < count; i++) {
+            int current = queue[i];
+            for (int d = 0; d < 4; d++) {
+                int next = maze.passage(current, d);
+                if (next != -1 && parent[next] == current) {
+                    stamp[next] = epoch;
+                    queue[count++] = next;
+                }
+            }
+        }
+        for (int i = 0; i < count; i++) {
+            distance[queue[i]] = -1;
+            parent[queue[i]] = -1;
+        }
+
+        // Each cell's best way in from outside the subtree.
+        heap.clear();
+        for (int i = 0; i < count; i++) {
+            int current = queue[i];
+            for (int d = 0; d < 4; d++) {
+                int next = maze.passage(current, d);
+                if (next == -1 || stamp[next] == epoch || distance[next] == -1)
+                    continue;
+                if (distance[current] == -1 || distance[next] + 1 < distance[current]) {
+                    distance[current] = distance[next] + 1;
+                    parent[current] = next;
+                }
+            }
+            if (distance[current] != -1)
+                heap.push(distance[current], current);
+        }
+
+        // Settle them smallest first, inside the subtree.
+        while (!heap.is_empty()) {
+            long key = heap.peek_key();
+            int current = heap.pop();
+            if (key != distance[current])
+                continue;
+            for (int d = 0; d < 4; d++) {
+                int next = maze.passage(current, d);
+                if (next == -1 || stamp[next] != epoch)
+                    continue;
+                if (distance[next] == -1 || distance[current] + 1 < distance[next]) {
+                    distance[next] = distance[current] + 1;
+                    parent[next] = current;
+                    heap.push(distance[next], next);
+                }
+            }
+        }
+        touched = count;
+        return solvable();
+    }
+
+    /**
+     * Changes a wall of the maze.
+     * @return The cell on the other side.
+     */
+    private int set(int cell, int direction, int value) {
+        int other = maze.neighbor(cell, direction);
+        if (other == -1)
+            throw new IllegalArgumentException("Cell " + cell + " has no neighbour in direction " + direction);
+        // EAST and SOUTH walls are ours, WEST and NORTH belong to the neighbour.
+        maze.set_wall(direction & 1, direction < 2 ? cell : other, value);
+        return other;
+    }
+
+    /**
+     * Breadth-first from the cells in the queue, lowering distances as it goes,
+     * and only going on from cells it lowered.
+     * @param count - Cells in the queue.
+     * @return Cells that went through the queue.
+     */
+    private int spread(int count) {
+        for (int i = 0; i < count; i++) {
+            int current = queue[i];
+            int step = distance[current] + 1;
+            for (int d = 0; d < 4; d++) {
+                int next = maze.passage(current, d);
+                if (next == -1 || (distance[next] != -1 && distance[next] <= step))
+                    continue;
+                distance[next] = step;
+                parent[next] = current;
+                queue[count++] = next;
+            }
+        }
+        return count;
+    }
+}
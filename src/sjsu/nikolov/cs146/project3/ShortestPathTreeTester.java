@@ -0,0 +1,125 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.SplittableRandom;
+import org.junit.Test;
+
+
+public class ShortestPathTreeTester
+{
+	/**
+	 * The tree has the distances of a fresh bfs, and every parent link is an open step one closer.
+	 */
+	private static void assert_fresh(Maze maze, ShortestPathTree tree, int start)
+	{
+		for (int cell = 0; cell < maze.cells(); cell++) {
+			SolveResult fresh = maze.bfs(start, cell, false);
+			assertEquals(fresh.length - (fresh.solved() ? 1 : 0), tree.distance(cell));
+			if (cell == start || tree.distance(cell) == -1) {
+				assertEquals(-1, tree.parent(cell));
+				continue;
+			}
+			boolean open = false;
+			for (int direction = 0; direction < 4; direction++)
+				open |= maze.passage(cell, direction) == tree.parent(cell);
+			assertTrue(open);
+			assertEquals(tree.distance(cell) - 1, tree.distance(tree.parent(cell)));
+		}
+	}
+
+	@Test
+	public void unsolvable_and_back()
+	{
+		Maze maze = new Maze(12);
+		maze.mazify(new GeneratorConfig(3));
+		ShortestPathTree tree = new ShortestPathTree(maze, 0, 143);
+		assertTrue(tree.solvable());
+		assertEquals(maze.bfs(0, 143, false).length, tree.solve().length);
+
+		// What render_unsolvable does: wall off the last cell's WEST and NORTH.
+		tree.close_wall(143, 2);
+		assertFalse(tree.close_wall(143, 3));
+		assertFalse(tree.solve().solved());
+		assert_fresh(maze, tree, 0);
+
+		assertTrue(tree.open_wall(143, 3));
+		assert_fresh(maze, tree, 0);
+		MazeSolverTester.assert_walkable(maze, tree.solve());
+	}
+
+	@Test
+	public void random_edits()
+	{
+		SplittableRandom rand = new SplittableRandom(5);
+		Maze maze = new Maze(20);
+		maze.randomise(new GeneratorConfig(5));
+		ShortestPathTree tree = new ShortestPathTree(maze, 210, 399);
+		for (int edit = 0; edit < 300; edit++) {
+			int cell = rand.nextInt(400);
+			int direction = rand.nextInt(4);
+			if (maze.neighbor(cell, direction) == -1)
+				continue;
+			boolean solvable = rand.nextBoolean() ? tree.open_wall(cell, direction) : tree.close_wall(cell, direction);
+			assertEquals(maze.bfs(210, 399, false).solved(), solvable);
+			if (edit % 10 == 0)
+				assert_fresh(maze, tree, 210);
+		}
+		assert_fresh(maze, tree, 210);
+	}
+
+	@Test
+	public void tiled_layout()
+	{
+		Maze maze = new Maze(MazeLayout.tiled(64));
+		maze.randomise(new GeneratorConfig(2));
+		ShortestPathTree tree = new ShortestPathTree(maze, 0, 4095);
+		SplittableRandom rand = new SplittableRandom(2);
+		for (int edit = 0; edit < 100; edit++) {
+			int cell = rand.nextInt(4096);
+			int direction = rand.nextInt(4);
+			if (maze.neighbor(cell, direction) != -1)
+				tree.open_wall(cell, direction);
+		}
+		assert_fresh(maze, tree, 0);
+	}
+
+	@Test
+	public void edits_stay_local()
+	{
+		Maze maze = new Maze(512);
+		maze.mazify(new GeneratorConfig(6));
+		int last = 512 * 512 - 1;
+		ShortestPathTree tree = new ShortestPathTree(maze, 0, last);
+		assertEquals(maze.cells(), tree.touched());
+
+		// Close the tree edge into a far-off cell with no children, and open it again.
+		int leaf = -1;
+		for (int cell = last; leaf == -1; cell--) {
+			boolean children = false;
+			for (int direction = 0; direction < 4; direction++) {
+				int next = maze.passage(cell, direction);
+				children |= next != -1 && tree.parent(next) == cell;
+			}
+			if (!children)
+				leaf = cell;
+		}
+		int parent = tree.parent(leaf);
+		int direction = 0;
+		while (maze.neighbor(leaf, direction) != parent)
+			direction++;
+		int distance = tree.distance(leaf);
+		tree.close_wall(leaf, direction);
+		assertEquals(1, tree.touched());
+		assertEquals(-1, tree.distance(leaf));
+		tree.open_wall(leaf, direction);
+		assertEquals(1, tree.touched());
+		assertEquals(distance, tree.distance(leaf));
+
+		// A wall between two cells of the same depth changes nothing.
+		for (int cell = 0; cell < last; cell++)
+			if (maze.neighbor(cell, 0) != -1 && tree.distance(cell) == tree.distance(cell + 1)) {
+				tree.open_wall(cell, 0);
+				assertEquals(0, tree.touched());
+				break;
+			}
+	}
+}
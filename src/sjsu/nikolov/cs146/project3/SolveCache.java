@@ -0,0 +1,211 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * SolveCache remembers solves by what was solved rather than by which Maze
+ * object: the key is the maze's wall hash, its size and layout, the two cells
+ * and the solver's name, so the same seed or file solved by many callers is
+ * only traversed once.
+ *
+ * A path is kept as its start cell and two bits per step for the direction,
+ * 32 steps to a long, and walked back out over the maze when it is read.
+ * The cache holds at most a given number of bytes of entries and drops the
+ * least recently used ones past that.
+ *
+ * Any number of threads may solve through one cache at once, on one Maze or
+ * on many, and two threads missing on the same key at once both solve and one
+ * of them is kept. What the cache cannot do is follow walls that change while
+ * it looks: like the solvers themselves, it needs every maze it is given to
+ * stay as it is until the solve comes back, and walls changed on one thread
+ * have to be handed over to the next (through a lock, a queue or a future)
+ * before that thread solves, or it may be keyed by a stale hash.
+ *
+ * The wall hash is 64 bits, so two different mazes of the same size sharing
+ * a key is a one in 2^64 chance per pair, which is taken as never.
+ */
+final class SolveCache {
+    // What an entry costs besides its steps: the key, the entry and the map's links.
+    private static final int ENTRY_BYTES = 128;
+
+    private final long max_bytes;
+
+    // In order of use, least recent first.
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param max_bytes - How much the entries may take in all.
+     */
+    SolveCache(long max_bytes) {
+        if (max_bytes < ENTRY_BYTES)
+            throw new IllegalArgumentException("Cache of " + max_bytes + " bytes cannot hold anything");
+        this.max_bytes = max_bytes;
+    }
+
+    /**
+     * Solves a maze, or finds the solve of one with the same walls.
+     * @param maze - The maze.
+     * @param solver - How to solve it.
+     * @param start - The cell to start from.
+     * @param end - The cell to reach.
+     * @return The result. A remembered one has its path read out lazily, over this maze.
+     */
+    SolveResult solve(Maze maze, MazeSolver solver, int start, int end) {
+        Key key = new Key(maze, solver.name(), start, end);
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+            if (entry != null)
+                hits++;
+            else
+                misses++;
+        }
+        if (entry != null)
+            return entry.result(maze, start, end);
+
+        SolveResult result = solver.solve(maze, start, end);
+        put(key, new Entry(maze, result));
+        return result;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        long weight = entry.bytes();
+        if (weight > max_bytes)
+            return;
+        Entry old = entries.put(key, entry);
+        if (old != null)
+            bytes -= old.bytes();
+        bytes += weight;
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > max_bytes) {
+            bytes -= eldest.next().bytes();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    /**
+     * Forgets everything, but not the counts.
+     */
+    synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * @return The counts so far.
+     */
+    synchronized Stats stats() {
+        return new Stats(hits, misses, evictions, entries.size(), bytes);
+    }
+
+    /**
+     * Stats is the counts of a cache at one moment.
+     */
+    static final class Stats {
+        final long hits;
+        final long misses;
+        final long evictions;
+        final int entries;
+        final long bytes;
+
+        private Stats(long hits, long misses, long evictions, int entries, long bytes) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.entries = entries;
+            this.bytes = bytes;
+        }
+
+        /**
+         * @return Hits over lookups, 0 before the first.
+         */
+        double hit_rate() {
+            long lookups = hits + misses;
+            return lookups == 0 ? 0 : (double)hits / lookups;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d hits, %d misses (%.1f%%), %d evictions, %d entries, %d bytes",
+                    hits, misses, 100 * hit_rate(), evictions, entries, bytes);
+        }
+    }
+
+    /**
+     * Key is what makes two solves the same.
+     */
+    private static final class Key {
+        private final long hash;
+        private final int size;
+        private final int layout;
+        private final String solver;
+        private final int start;
+        private final int end;
+
+        Key(Maze maze, String solver, int start, int end) {
+            this.hash = maze.wall_hash();
+            this.size = maze.size();
+            this.layout = maze.layout.kind;
+            this.solver = solver;
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Key))
+                return false;
+            Key key = (Key)other;
+            return hash == key.hash && size == key.size && layout == key.layout
+                    && start == key.start && end == key.end && solver.equals(key.solver);
+        }
+
+        @Override
+        public int hashCode() {
+            return (int)(hash ^ hash >>> 32) ^ 31 * (start * 31 + end) ^ solver.hashCode();
+        }
+    }
+
+    /**
+     * Entry is a solve with its path packed into directions.
+     */
+    private static final class Entry {
+        private final int length;
+        private final int visited;
+        private final long[] steps;
+
+        Entry(Maze maze, SolveResult result) {
+            length = result.length;
+            visited = result.visited;
+            int[] path = result.path();
+            steps = new long[(Math.max(path.length - 1, 0) + 31) >>> 5];
+            for (int i = 1; i < path.length; i++) {
+                int direction = 0;
+                while (maze.neighbor(path[i - 1], direction) != path[i])
+                    direction++;
+                steps[(i - 1) >>> 5] |= (long)direction << ((i - 1 & 31) << 1);
+            }
+        }
+
+        long bytes() {
+            return ENTRY_BYTES + 8L * steps.length;
+        }
+
+        SolveResult result(Maze maze, int start, int end) {
+            return new SolveResult(start, end, length, visited, into -> {
+                int current = start;
+                into[0] = current;
+                for (int i = 1; i < into.length; i++) {
+                    current = maze.neighbor(current, (int)(steps[(i - 1) >>> 5] >>> ((i - 1 & 31) << 1)) & 3);
+                    into[i] = current;
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+
+
+public class SolveCacheTester
+{
+	private static Maze maze(int size, long seed)
+	{
+		Maze maze = new Maze(size);
+		maze.mazify(new GeneratorConfig(seed));
+		return maze;
+	}
+
+	@Test
+	public void hash_follows_walls()
+	{
+		Maze a = maze(30, 1);
+		Maze b = maze(30, 1);
+		assertEquals(a.wall_hash(), b.wall_hash());
+		assertNotEquals(a.wall_hash(), maze(30, 2).wall_hash());
+
+		// Kept up by set_wall, and back where it was when the wall is.
+		long before = a.wall_hash();
+		a.set_wall(MazeStorage.EAST, 0, a.storage.wall(MazeStorage.EAST, 0) ^ 1);
+		assertNotEquals(before, a.wall_hash());
+		assertEquals(a.wall_hash(), new Maze(30, a.storage).wall_hash());
+		a.set_wall(MazeStorage.EAST, 0, a.storage.wall(MazeStorage.EAST, 0) ^ 1);
+		assertEquals(before, a.wall_hash());
+
+		// Writing what is already there changes nothing.
+		a.set_wall(MazeStorage.SOUTH, 5, a.storage.wall(MazeStorage.SOUTH, 5));
+		assertEquals(before, a.wall_hash());
+
+		// Atomic writes drop it, and it is worked out again.
+		b.open_wall_atomic(MazeStorage.SOUTH, 7);
+		assertEquals(new Maze(30, b.storage).wall_hash(), b.wall_hash());
+	}
+
+	@Test
+	public void hash_from_many_threads() throws Exception
+	{
+		long expected = maze(200, 10).wall_hash();
+		for (int round = 0; round < 20; round++) {
+			// A fresh maze each time, so the threads race to work the hash out.
+			Maze maze = maze(200, 10);
+			long[] seen = new long[4];
+			Thread[] threads = new Thread[seen.length];
+			for (int t = 0; t < threads.length; t++) {
+				int slot = t;
+				threads[t] = new Thread(() -> seen[slot] = maze.wall_hash());
+			}
+			for (Thread thread : threads)
+				thread.start();
+			for (Thread thread : threads)
+				thread.join();
+			for (long hash : seen)
+				assertEquals(expected, hash);
+		}
+	}
+
+	@Test
+	public void same_walls_hit()
+	{
+		SolveCache cache = new SolveCache(1 << 20);
+		for (MazeSolver solver : MazeSolver.ALL) {
+			SolveResult first = cache.solve(maze(40, 3), solver, 0, 1599);
+			Maze again = maze(40, 3);
+			SolveResult second = cache.solve(again, solver, 0, 1599);
+			assertEquals(solver.name(), first.length, second.length);
+			assertEquals(first.visited, second.visited);
+			assertArrayEquals(first.path(), second.path());
+			MazeSolverTester.assert_walkable(again, second);
+		}
+		SolveCache.Stats stats = cache.stats();
+		assertEquals(MazeSolver.ALL.length, stats.hits);
+		assertEquals(MazeSolver.ALL.length, stats.misses);
+		assertEquals(MazeSolver.ALL.length, stats.entries);
+		assertEquals(0.5, stats.hit_rate(), 1e-9);
+	}
+
+	@Test
+	public void edits_and_cells_miss()
+	{
+		SolveCache cache = new SolveCache(1 << 20);
+		Maze maze = maze(20, 4);
+		cache.solve(maze, MazeSolver.BFS, 0, 399);
+		cache.solve(maze, MazeSolver.BFS, 0, 398);
+		cache.solve(maze, MazeSolver.BFS, 1, 399);
+		cache.solve(maze, MazeSolver.DFS, 0, 399);
+		assertEquals(0, cache.stats().hits);
+
+		maze.render_unsolvable();
+		SolveResult walled = cache.solve(maze, MazeSolver.BFS, 0, 399);
+		assertFalse(walled.solved());
+		assertEquals(0, walled.path().length);
+		assertEquals(0, cache.stats().hits);
+		assertFalse(cache.solve(maze, MazeSolver.BFS, 0, 399).solved());
+		assertEquals(1, cache.stats().hits);
+
+		// Same walls in the other layout number their cells differently.
+		Maze row = maze(64, 5);
+		Maze tiled = new Maze(MazeLayout.tiled(64));
+		tiled.mazify(new GeneratorConfig(5));
+		cache.solve(row, MazeSolver.BFS, 0, 4095);
+		SolveResult result = cache.solve(tiled, MazeSolver.BFS, 0, 4095);
+		assertEquals(1, cache.stats().hits);
+		MazeSolverTester.assert_walkable(tiled, result);
+	}
+
+	@Test
+	public void least_recent_goes()
+	{
+		// Room for about two solves of a 50*50 maze.
+		Maze[] mazes = { maze(50, 6), maze(50, 7), maze(50, 8) };
+		SolveCache probe = new SolveCache(1 << 20);
+		for (Maze maze : mazes)
+			probe.solve(maze, MazeSolver.BFS, 0, 2499);
+		long each = probe.stats().bytes / 3;
+		SolveCache cache = new SolveCache(each * 2 + each / 2);
+
+		cache.solve(mazes[0], MazeSolver.BFS, 0, 2499);
+		cache.solve(mazes[1], MazeSolver.BFS, 0, 2499);
+		cache.solve(mazes[0], MazeSolver.BFS, 0, 2499);
+		cache.solve(mazes[2], MazeSolver.BFS, 0, 2499);
+		SolveCache.Stats stats = cache.stats();
+		assertEquals(1, stats.evictions);
+		assertEquals(2, stats.entries);
+		assertTrue(stats.bytes <= each * 2 + each / 2);
+
+		// mazes[1] was least recently used, so it went.
+		cache.solve(mazes[0], MazeSolver.BFS, 0, 2499);
+		assertEquals(2, cache.stats().hits);
+		cache.solve(mazes[1], MazeSolver.BFS, 0, 2499);
+		assertEquals(2, cache.stats().hits);
+
+		cache.clear();
+		assertEquals(0, cache.stats().entries);
+		assertEquals(0, cache.stats().bytes);
+	}
+
+	@Test
+	public void many_threads() throws Exception
+	{
+		SolveCache cache = new SolveCache(1 << 20);
+		Maze maze = maze(100, 9);
+		int length = maze.bfs(0, 9999, false).length;
+		maze.wall_hash();
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> failures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Thread thread = new Thread(() -> {
+				try {
+					for (int i = 0; i < 50; i++) {
+						SolveResult result = cache.solve(maze, MazeSolver.BFS, 0, 9999);
+						if (result.path().length != length)
+							throw new AssertionError("Wrong length " + result.path().length);
+					}
+				} catch (Throwable e) {
+					synchronized (failures) {
+						failures.add(e);
+					}
+				}
+			});
+			threads.add(thread);
+			thread.start();
+		}
+		for (Thread thread : threads)
+			thread.join();
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(200, cache.stats().hits + cache.stats().misses);
+		assertEquals(1, cache.stats().entries);
+	}
+}
@@ -0,0 +1,147 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * SolveResult is what a headless solve hands back: how long the path is,
+ * how many cells were reached on the way, and the path itself.
+ * The path is only built when someone asks for it. Until then it sits
+ * as parent links in the solver's workspace, so it has to be read before
+ * the same thread starts its next solve.
+ */
+final class SolveResult {
+    /**
+     * A solver that keeps its path in some other form than workspace
+     * parent links writes it out through this.
+     */
+    interface PathSource {
+        /**
+         * @param into - An array of the result's length, to be filled from start to end.
+         */
+        void write(int[] into);
+    }
+
+    // The cells we went from and to.
+    final int start;
+    final int end;
+
+    // Cells on the path, both ends included. -1 if there is no path.
+    final int length;
+
+    // Cells the solver reached before it stopped.
+    final int visited;
+
+    // Where the path comes from: workspace parent links, or a source of its own.
+    private final SolverWorkspace work;
+    private final long generation;
+    private final PathSource source;
+
+    // Traversal order, if it was asked for.
+    private final char[] order;
+
+    // The path, once built.
+    private int[] path;
+
+    /**
+     * Result whose path is in the parent links of a workspace.
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @param length - Cells on the path, or -1 if there is none.
+     * @param visited - Cells reached.
+     * @param work - The workspace the solve ran in.
+     * @param order - The traversal order in the workspace, or null if not recorded.
+     */
+    SolveResult(int start, int end, int length, int visited, SolverWorkspace work, char[] order) {
+        this.start = start;
+        this.end = end;
+        this.length = length;
+        this.visited = visited;
+        this.work = work;
+        this.generation = work.generation;
+        this.source = null;
+        this.order = order;
+    }
+
+    /**
+     * Result whose path comes from a source of its own, valid for as long as the source is.
+     * @param start - The first cell.
+     * @param end - The last cell.
+     * @param length - Cells on the path, or -1 if there is none.
+     * @param visited - Cells reached.
+     * @param source - Writes the path on demand.
+     */
+    SolveResult(int start, int end, int length, int visited, PathSource source) {
+        this.start = start;
+        this.end = end;
+        this.length = length;
+        this.visited = visited;
+        this.work = null;
+        this.generation = 0;
+        this.source = source;
+        this.order = null;
+    }
+
+    /**
+     * @return Whether a path was found.
+     */
+    boolean solved() {
+        return length > 0;
+    }
+
+    /**
+     * Builds the path the first time it is asked for.
+     * @return The cells of the path, start first. Empty if there is none.
+     */
+    int[] path() {
+        if (path != null)
+            return path;
+        if (!solved())
+            return path = new int[0];
+        check_live();
+
+        int[] result = new int[length];
+        if (source != null)
+            source.write(result);
+        else {
+            // Bubble up the parents from the end, filling the array backwards.
+            int[] parent = work.parent;
+            int current = end;
+            for (int i = length - 1; i > 0; i--) {
+                result[i] = current;
+                current = parent[current];
+            }
+            result[0] = current;
+        }
+        return path = result;
+    }
+
+    /**
+     * @param cells - The number of cells in the maze.
+     * @return An array containing '#' in cells where the path is happening, spaces elsewhere.
+     */
+    char[] overlay(int cells) {
+        char[] result = new char[cells];
+        Arrays.fill(result, ' ');
+        for (int cell : path())
+            result[cell] = '#';
+        return result;
+    }
+
+    /**
+     * @return The step number of every reached cell, mod 10, as print wants it.
+     * This is the workspace array, not a copy.
+     */
+    char[] order() {
+        if (order == null)
+            throw new IllegalStateException("Traversal order was not recorded.");
+        check_live();
+        return order;
+    }
+
+    /**
+     * Workspace-backed data only holds until the workspace is handed to the next solve.
+     */
+    private void check_live() {
+        if (work != null && work.generation != generation)
+            throw new IllegalStateException("The workspace has been reused since this solve.");
+    }
+}
@@ -0,0 +1,73 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class SolveResultTester
+{
+	@Test
+	public void headless_bfs()
+	{
+		// A 2x2 maze with a passage EAST of cell 0 and SOUTH of cell 1.
+		Maze maze = new Maze(new int[][] { { 1, 0, 0, 0 }, { 0, 1, 0, 0 } });
+		SolveResult result = maze.bfs(0, 3, false);
+		assertTrue(result.solved());
+		assertEquals(3, result.length);
+		assertArrayEquals(new int[] { 0, 1, 3 }, result.path());
+		assertArrayEquals(new char[] { '#', '#', ' ', '#' }, result.overlay(4));
+	}
+
+	@Test
+	public void dfs_and_bfs_agree()
+	{
+		// A perfect maze has exactly one path, so both solvers must find it.
+		Maze maze = new Maze(15);
+		maze.mazify();
+		int[] dfs = maze.dfs(0, 224, false).path();
+		int[] bfs = maze.bfs(0, 224, false).path();
+		assertArrayEquals(dfs, bfs);
+		assertEquals(0, bfs[0]);
+		assertEquals(224, bfs[bfs.length - 1]);
+	}
+
+	@Test
+	public void any_start_and_end()
+	{
+		Maze maze = new Maze(12);
+		maze.mazify();
+		int[] forward = maze.bfs(13, 130, false).path();
+		int[] backward = maze.bfs(130, 13, false).path();
+		assertEquals(forward.length, backward.length);
+		for (int i = 0; i < forward.length; i++)
+			assertEquals(forward[i], backward[backward.length - 1 - i]);
+	}
+
+	@Test
+	public void unsolvable()
+	{
+		Maze maze = new Maze(10);
+		maze.mazify();
+		maze.render_unsolvable();
+		assertFalse(maze.bfs(0, 99, false).solved());
+		assertFalse(maze.dfs(0, 99, false).solved());
+		assertEquals(0, maze.bfs(0, 99, false).path().length);
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void order_is_opt_in()
+	{
+		Maze maze = new Maze(5);
+		maze.mazify();
+		maze.bfs(0, 24, false).order();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void path_is_lazy()
+	{
+		Maze maze = new Maze(5);
+		maze.mazify();
+		SolveResult first = maze.bfs(0, 24, false);
+		maze.dfs(0, 24, false);
+		first.path();
+	}
+}
@@ -0,0 +1,165 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * SolverWorkspace holds the scratch arrays of a solve: the queue (or stack),
+ * the parent of every reached cell, a seen bit per cell and the traversal order.
+ * Each thread keeps one workspace and it only grows, so once it has seen the
+ * largest maze, solving allocates nothing.
+ */
+final class SolverWorkspace {
+    private static final ThreadLocal<SolverWorkspace> LOCAL = ThreadLocal.withInitial(SolverWorkspace::new);
+
+    // Queue for BFS, stack for DFS.
+    int[] cells = new int[0];
+
+    // parent[x] is the cell we came from when we first reached x. Only valid for seen cells.
+    int[] parent = new int[0];
+
+    // One bit per cell, set once the cell has been reached.
+    long[] seen = new long[0];
+
+    // Traversal order, for solves that record it.
+    char[] order = new char[0];
+
+    // For solvers that tell reached cells apart from finished ones (A*):
+    // a second bit per cell, a distance per cell and a heap.
+    long[] opened = new long[0];
+    int[] distance = new int[0];
+    final IntMinHeap heap = new IntMinHeap();
+
+    // A second queue, for solvers that search from both ends.
+    int[] back = new int[0];
+
+    // For solvers that fill one level from many threads: the cells a thread
+    // found in its share, and how many of the next level the threads have filled.
+    int[] found = new int[0];
+    volatile int filled;
+
+    // How many cells the current solve uses.
+    int size;
+
+    // Goes up every time the workspace is handed to a new solve.
+    long generation;
+
+    /**
+     * @return The workspace of the calling thread.
+     */
+    static SolverWorkspace current() {
+        return LOCAL.get();
+    }
+
+    /**
+     * Makes a workspace the calling thread's own, e.g. one lent from a pool to
+     * a short-lived thread that would otherwise grow a new one for every solve.
+     * @param work - The workspace, or null to drop the thread's workspace.
+     */
+    static void install(SolverWorkspace work) {
+        if (work == null)
+            LOCAL.remove();
+        else
+            LOCAL.set(work);
+    }
+
+    /**
+     * Gets the workspace ready for a solve over a given number of cells.
+     * Arrays are grown if needed and the seen bits are cleared.
+     * @param size - The number of cells of the maze.
+     * @return This workspace.
+     */
+    SolverWorkspace prepare(int size) {
+        if (cells.length < size) {
+            cells = new int[size];
+            parent = new int[size];
+        }
+        int words = (size + 63) >>> 6;
+        if (seen.length < words)
+            seen = new long[words];
+        else
+            Arrays.fill(seen, 0, words, 0);
+        this.size = size;
+        generation++;
+        return this;
+    }
+
+    /**
+     * @param cell - The cell number.
+     * @return Whether the cell has been reached in this solve.
+     */
+    boolean seen(int cell) {
+        return (seen[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Marks a cell as reached.
+     * @param cell - The cell number.
+     */
+    void mark(int cell) {
+        seen[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * Clears the opened bits. Only solvers that use them pay for it.
+     */
+    void clear_opened() {
+        int words = (size + 63) >>> 6;
+        if (opened.length < words)
+            opened = new long[words];
+        else
+            Arrays.fill(opened, 0, words, 0);
+    }
+
+    /**
+     * @param cell - The cell number.
+     * @return Whether the cell has been opened in this solve.
+     */
+    boolean opened(int cell) {
+        return (opened[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /**
+     * Marks a cell as opened.
+     * @param cell - The cell number.
+     */
+    void open(int cell) {
+        opened[cell >>> 6] |= 1L << cell;
+    }
+
+    /**
+     * @return The distance array, sized for this solve. Not cleared.
+     */
+    int[] distance() {
+        if (distance.length < size)
+            distance = new int[size];
+        return distance;
+    }
+
+    /**
+     * @return The second queue, sized for this solve. Not cleared.
+     */
+    int[] back() {
+        if (back.length < size)
+            back = new int[size];
+        return back;
+    }
+
+    /**
+     * @param count - How many cells it must hold.
+     * @return The found buffer, at least that big. Not cleared.
+     */
+    int[] found(int count) {
+        if (found.length < count)
+            found = new int[count];
+        return found;
+    }
+
+    /**
+     * @return The order array, sized for this solve and filled with spaces.
+     */
+    char[] order() {
+        if (order.length < size)
+            order = new char[size];
+        Arrays.fill(order, 0, size, ' ');
+        return order;
+    }
+}
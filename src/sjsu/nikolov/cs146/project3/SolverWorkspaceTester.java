@@ -0,0 +1,33 @@
+package sjsu.nikolov.cs146.project3;
+import static org.junit.Assert.*;
+import org.junit.Test;
+
+
+public class SolverWorkspaceTester
+{
+	@Test
+	public void reused_between_solves()
+	{
+		Maze maze = new Maze(20);
+		maze.mazify();
+		maze.bfs_solve();
+		SolverWorkspace work = SolverWorkspace.current();
+		int[] queue = work.cells;
+		long[] seen = work.seen;
+		maze.dfs_solve();
+		maze.bfs_solve();
+		assertSame(queue, work.cells);
+		assertSame(seen, work.seen);
+	}
+
+	@Test
+	public void grows_for_bigger_mazes()
+	{
+		SolverWorkspace work = new SolverWorkspace().prepare(16);
+		work.mark(15);
+		assertTrue(work.seen(15));
+		work.prepare(100);
+		assertFalse(work.seen(15));
+		assertTrue(work.cells.length >= 100);
+	}
+}
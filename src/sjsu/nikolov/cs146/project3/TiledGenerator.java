@@ -0,0 +1,144 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.random.RandomGenerator;
+
+/**
+ * TiledGenerator cuts the grid into square tiles, carves a perfect maze in each
+ * tile on its own thread, and then stitches the tiles together.
+ * The tiles are joined along a random spanning tree of the tile grid, one opened
+ * seam wall per tree edge, so the whole is still connected and free of loops.
+ * Each tile gets its own seed up front, so the maze depends only on the seed and
+ * the tile size, not on how the threads were scheduled.
+ */
+final class TiledGenerator implements MazeGenerator {
+    // Tiles per task below which a task stops splitting.
+    private static final int TILES_PER_TASK = 4;
+
+    private final int tile;
+    private final ForkJoinPool pool;
+
+    /**
+     * @param tile - The side of a tile, in cells. Edge tiles may be smaller.
+     * @param pool - Where the tiles are carved.
+     */
+    TiledGenerator(int tile, ForkJoinPool pool) {
+        if (tile < 1)
+            throw new IllegalArgumentException("Bad tile size: " + tile);
+        this.tile = tile;
+        this.pool = pool;
+    }
+
+    public String name() {
+        return "tiled";
+    }
+
+    public void generate(Maze maze, RandomGenerator rand) {
+        int size = maze.size();
+        int across = (size + tile - 1) / tile;
+        int tiles = across * across;
+
+        // One seed per tile, drawn before anything runs.
+        SplittableRandom seeds = new SplittableRandom(rand.nextLong());
+        long[] tile_seeds = new long[tiles];
+        for (int i = 0; i < tiles; i++)
+            tile_seeds[i] = seeds.nextLong();
+
+        // Carve every tile.
+        pool.invoke(new Carve(maze, across, tile_seeds, 0, tiles));
+
+        // Stitch: go through the seams between tiles in random order and open one
+        // wall in every seam that joins two groups of tiles not yet connected.
+        int[] seams = new int[2 * tiles];
+        int count = 0;
+        for (int t = 0; t < tiles; t++) {
+            if (t % across != across - 1)
+                seams[count++] = t << 1 | MazeStorage.EAST;
+            if (t + across < tiles)
+                seams[count++] = t << 1 | MazeStorage.SOUTH;
+        }
+        UnionFind groups = new UnionFind(tiles);
+        for (int i = count - 1; i >= 0; i--) {
+            int j = seeds.nextInt(i + 1);
+            int seam = seams[j];
+            seams[j] = seams[i];
+
+            int t = seam >>> 1;
+            int side = seam & 1;
+            if (!groups.union(t, side == MazeStorage.EAST ? t + 1 : t + across))
+                continue;
+
+            // The opened wall sits on the tile's last column (EAST) or last row (SOUTH).
+            int top = (t / across) * tile;
+            int left = (t % across) * tile;
+            int height = Math.min(tile, size - top);
+            int width = Math.min(tile, size - left);
+            long cell = side == MazeStorage.EAST
+                    ? maze.cell(top + seeds.nextInt(height), left + width - 1)
+                    : maze.cell(top + height - 1, left + seeds.nextInt(width));
+            maze.set_wall(side, cell, MazeStorage.CONNECTED);
+        }
+    }
+
+    /**
+     * Carve is a range of tiles. It splits in half until it is small, then
+     * runs Eller's algorithm on each tile, which works on any rectangle.
+     */
+    private final class Carve extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Maze maze;
+        private final int across;
+        private final long[] seeds;
+        private final int from;
+        private final int to;
+
+        Carve(Maze maze, int across, long[] seeds, int from, int to) {
+            this.maze = maze;
+            this.across = across;
+            this.seeds = seeds;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TILES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Carve(maze, across, seeds, from, middle), new Carve(maze, across, seeds, middle, to));
+                return;
+            }
+            for (int t = from; t < to; t++)
+                carve(t);
+        }
+
+        private void carve(int t) {
+            int size = maze.size();
+            int top = (t / across) * tile;
+            int left = (t % across) * tile;
+            int height = Math.min(tile, size - top);
+            int width = Math.min(tile, size - left);
+
+            EllerGenerator.Rows rows = new EllerGenerator.Rows(width, new SplittableRandom(seeds[t]));
+            byte[] walls = new byte[width];
+            for (int row = 0; row < height; row++) {
+                rows.next(row == height - 1, walls);
+
+                // Tiles next to us write to the same words, so the writes have to be atomic.
+                for (int col = 0; col < width; col++) {
+                    if ((walls[col] & EllerGenerator.EAST_BIT) != 0)
+                        maze.open_wall_atomic(MazeStorage.EAST, maze.cell(top + row, left + col));
+                    if ((walls[col] & EllerGenerator.SOUTH_BIT) != 0)
+                        maze.open_wall_atomic(MazeStorage.SOUTH, maze.cell(top + row, left + col));
+                }
+            }
+        }
+    }
+
+    public long footprint(int size) {
+        // A row of Eller per worker, plus the tile seeds, seams and union-find.
+        long across = (size + tile - 1) / tile;
+        return 14L*tile*pool.getParallelism() + 20*across*across;
+    }
+}
@@ -0,0 +1,62 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.Arrays;
+
+/**
+ * UnionFind keeps disjoint sets of cells in a single int array.
+ * A root holds minus the size of its set, everyone else holds a parent.
+ * Finds split the path as they go, unions hang the smaller set under the larger.
+ */
+final class UnionFind {
+    private final int[] set;
+
+    /**
+     * @param size - Number of elements, each starting in a set of its own.
+     */
+    UnionFind(int size) {
+        set = new int[size];
+        Arrays.fill(set, -1);
+    }
+
+    /**
+     * @param x - An element.
+     * @return The root of its set.
+     */
+    int find(int x) {
+        while (set[x] >= 0) {
+            int parent = set[x];
+            if (set[parent] >= 0)
+                set[x] = set[parent];
+            x = parent;
+        }
+        return x;
+    }
+
+    /**
+     * @param x - An element.
+     * @return How many elements its set has.
+     */
+    int size(int x) {
+        return -set[find(x)];
+    }
+
+    /**
+     * Joins the sets of two elements.
+     * @param a - An element.
+     * @param b - Another element.
+     * @return False if they were in the same set already.
+     */
+    boolean union(int a, int b) {
+        a = find(a);
+        b = find(b);
+        if (a == b)
+            return false;
+        if (set[a] > set[b]) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+        set[a] += set[b];
+        set[b] = a;
+        return true;
+    }
+}
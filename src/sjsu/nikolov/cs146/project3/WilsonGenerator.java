@@ -0,0 +1,53 @@
+package sjsu.nikolov.cs146.project3;
+import java.util.random.RandomGenerator;
+
+/**
+ * Wilson's algorithm: from every cell not in the maze yet, random-walk until the
+ * maze is hit, then carve the loop-erased walk. Each perfect maze on the grid is
+ * equally likely. Slow to start on big grids, while the maze is still small.
+ */
+final class WilsonGenerator implements MazeGenerator {
+    public String name() {
+        return "wilson";
+    }
+
+    public void generate(Maze maze, RandomGenerator rand) {
+        int cells = maze.int_cells();
+
+        // The last way out of each cell on the current walk. Remembering only the
+        // last one is what erases the loops.
+        byte[] exit = new byte[cells];
+        long[] tree = new long[(cells + 63) >>> 6];
+        int root = rand.nextInt(cells);
+        tree[root >>> 6] |= 1L << root;
+
+        for (int start = 0; start < cells; start++) {
+            // Walk at random until we hit the maze.
+            int cell = start;
+            while ((tree[cell >>> 6] & (1L << cell)) == 0) {
+                int exits = 0;
+                for (int direction = 0; direction < 4; direction++)
+                    if (maze.neighbor(cell, direction) != -1)
+                        exits |= 1 << direction;
+                int direction = MazeGenerator.random_direction(exits, rand);
+                exit[cell] = (byte)direction;
+                cell = maze.neighbor(cell, direction);
+            }
+
+            // Walk it again following the last exits, carving as we go.
+            cell = start;
+            while ((tree[cell >>> 6] & (1L << cell)) == 0) {
+                tree[cell >>> 6] |= 1L << cell;
+                int next = maze.neighbor(cell, exit[cell]);
+                maze.knock_wall(cell, next);
+                cell = next;
+            }
+        }
+    }
+
+    public long footprint(int size) {
+        // An exit byte and a tree bit per cell.
+        long cells = (long)size*size;
+        return cells + ((cells + 63) >>> 6) * 8;
+    }
+}
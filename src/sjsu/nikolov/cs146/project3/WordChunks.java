@@ -0,0 +1,107 @@
+package sjsu.nikolov.cs146.project3;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * WordChunks is an array of longs kept in byte buffers, little-endian, for
+ * storages that live off the heap. One buffer holds at most 2GB, so a long
+ * array is cut into chunks of a power-of-two size, and a word is found with
+ * a shift and a mask.
+ */
+final class WordChunks {
+    // Bytes per chunk, as a shift, unless asked otherwise.
+    static final int CHUNK_SHIFT = 30;
+
+    // Atomic access to the words, for generators running on several threads.
+    private static final VarHandle WORDS = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    // Zeros to fill with, a block at a time.
+    private static final ByteBuffer ZEROS = ByteBuffer.allocateDirect(1 << 16);
+
+    private final ByteBuffer[] chunks;
+    private final int shift;
+    private final long mask;
+
+    /**
+     * Puts words on top of existing buffers.
+     * @param chunks - The buffers, all but the last exactly 2^shift bytes, each 8-byte aligned.
+     * @param shift - Bytes per chunk, as a shift.
+     */
+    WordChunks(ByteBuffer[] chunks, int shift) {
+        if (shift < 3 || shift > CHUNK_SHIFT)
+            throw new IllegalArgumentException("Bad chunk shift: " + shift);
+        this.chunks = chunks;
+        this.shift = shift;
+        this.mask = (1L << shift) - 1;
+        for (ByteBuffer chunk : chunks)
+            chunk.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Allocates zeroed words outside the heap.
+     * @param words - How many.
+     * @param shift - Bytes per chunk, as a shift.
+     * @return The words.
+     */
+    static WordChunks allocate_direct(long words, int shift) {
+        long bytes = words * 8;
+        ByteBuffer[] chunks = new ByteBuffer[(int)((bytes + (1L << shift) - 1) >>> shift)];
+        for (int i = 0; i < chunks.length; i++) {
+            int length = (int)Math.min(1L << shift, bytes - ((long)i << shift));
+            // Room to slide to an 8-byte boundary, which atomic access needs.
+            chunks[i] = ByteBuffer.allocateDirect(length + 7).alignedSlice(8).limit(length);
+        }
+        return new WordChunks(chunks, shift);
+    }
+
+    /**
+     * @param word - The word number.
+     * @return The word.
+     */
+    long get(long word) {
+        long at = word << 3;
+        return chunks[(int)(at >>> shift)].getLong((int)(at & mask));
+    }
+
+    /**
+     * @param word - The word number.
+     * @param value - Its new value.
+     */
+    void set(long word, long value) {
+        long at = word << 3;
+        chunks[(int)(at >>> shift)].putLong((int)(at & mask), value);
+    }
+
+    /**
+     * Sets bits of a word, safely against other threads doing the same.
+     * @param word - The word number.
+     * @param bits - The bits to set.
+     */
+    void or_atomic(long word, long bits) {
+        long at = word << 3;
+        WORDS.getAndBitwiseOr(chunks[(int)(at >>> shift)], (int)(at & mask), bits);
+    }
+
+    /**
+     * Zeroes every word with bulk copies.
+     */
+    void clear() {
+        for (ByteBuffer chunk : chunks) {
+            ByteBuffer target = chunk.duplicate().clear();
+            while (target.hasRemaining())
+                target.put(ZEROS.duplicate().limit(Math.min(ZEROS.capacity(), target.remaining())));
+        }
+    }
+
+    /**
+     * @return The chunks, in order, as fresh views from position 0 to their length.
+     */
+    ByteBuffer[] views() {
+        ByteBuffer[] result = new ByteBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++)
+            result[i] = chunks[i].duplicate().clear().order(ByteOrder.LITTLE_ENDIAN);
+        return result;
+    }
+}